@@ -0,0 +1,330 @@
+package io.github.marianciuc.jwtsecurity.audit;
+
+import io.github.marianciuc.jwtsecurity.enums.VerificationOutcome;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The `AuditLog` class records issued tokens and verification outcomes as JSON lines in rolling local files, without
+ * doing any I/O on the thread that issues or verifies the token. Records are handed over through a bounded lock-free
+ * ring buffer of preallocated slots to a single background writer, which appends whatever has accumulated in one
+ * write and forces it to disk once per batch (group commit).
+ * <p>
+ * Every issued token and every rejected token is recorded; successful verifications are recorded at the configured
+ * sample rate. Verifications are recorded once the final decision is made, by the public entry points of the token
+ * services and by the filter rejecting throttled clients. When the ring buffer is full, records are either dropped and counted, or the calling thread waits for
+ * free space, depending on the {@link OverflowPolicy}.
+ *
+ * @author Vladimir Marianciuc
+ * @version 1.0
+ */
+public class AuditLog implements AutoCloseable {
+
+    /**
+     * What to do with a record when the ring buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drop the record and count it in {@link #getDroppedCount()}.
+         */
+        DROP,
+        /**
+         * Wait until the writer frees a slot.
+         */
+        BLOCK
+    }
+
+    private static final String ISSUED = "ISSUED";
+    private static final long CLOSED = Long.MIN_VALUE;
+    private static final String FILE_PREFIX = "audit-";
+    private static final String FILE_SUFFIX = ".jsonl";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Path directory;
+    private final OverflowPolicy overflowPolicy;
+    private final double verifiedSampleRate;
+    private final long maxFileBytes;
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private final StringBuilder batch = new StringBuilder(4096);
+    private long head;
+    private volatile boolean running = true;
+    private FileChannel channel;
+    private long fileBytes;
+    private int fileSequence;
+
+    /**
+     * AuditLog class constructor. Starts the background writer.
+     *
+     * @param directory          the directory of the audit files.
+     * @param capacity           the number of slots of the ring buffer, rounded up to a power of two.
+     * @param overflowPolicy     what to do with records when the ring buffer is full.
+     * @param verifiedSampleRate the fraction of successful verifications to record, between 0 and 1.
+     * @param maxFileBytes       the size after which a new audit file is started.
+     * @throws IOException if the directory can't be created.
+     */
+    public AuditLog(Path directory, int capacity, OverflowPolicy overflowPolicy, double verifiedSampleRate, long maxFileBytes) throws IOException {
+        if (capacity < 2) throw new IllegalArgumentException("capacity must be at least 2");
+        this.directory = Files.createDirectories(directory);
+        this.overflowPolicy = overflowPolicy;
+        this.verifiedSampleRate = verifiedSampleRate;
+        this.maxFileBytes = maxFileBytes;
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) slots[i] = new Slot(i);
+        this.mask = size - 1;
+        this.writer = new Thread(this::writeLoop, "jwt-audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Records an issued token.
+     *
+     * @param subject   the subject of the token.
+     * @param id        the user id of the token.
+     * @param tokenType the type of the token.
+     * @param jti       the unique id of the token, or null.
+     * @param kid       the key id of the token, or null.
+     */
+    public void issued(String subject, String id, String tokenType, String jti, String kid) {
+        offer(ISSUED, subject, id, tokenType, jti, kid, null);
+    }
+
+    /**
+     * Records the outcome of a token verification. Successful verifications are sampled.
+     *
+     * @param outcome   the outcome of the verification.
+     * @param subject   the subject of the token, or null if unknown.
+     * @param id        the user id of the token, or null if unknown.
+     * @param tokenType the type of the token, or null if unknown.
+     * @param jti       the unique id of the token, or null.
+     * @param kid       the key id of the token, or null.
+     */
+    public void verified(VerificationOutcome outcome, String subject, String id, String tokenType, String jti, String kid) {
+        if (outcome == VerificationOutcome.VALID
+                && (verifiedSampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= verifiedSampleRate)) return;
+        offer(outcome.name(), subject, id, tokenType, jti, kid, null);
+    }
+
+    /**
+     * Records a request rejected without verification because its client is throttled.
+     *
+     * @param clientKey the key of the throttled client.
+     */
+    public void throttled(String clientKey) {
+        offer(VerificationOutcome.THROTTLED.name(), null, null, null, null, null, clientKey);
+    }
+
+    /**
+     * Returns the number of records dropped because the ring buffer was full or the audit file couldn't be written.
+     *
+     * @return the number of dropped records.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes the pending records and stops the writer. Records offered concurrently are either written or counted as
+     * dropped.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Claims a slot of the ring buffer, fills it and publishes it to the writer.
+     */
+    private void offer(String outcome, String subject, String id, String tokenType, String jti, String kid, String client) {
+        if (!running) {
+            dropped.incrementAndGet();
+            return;
+        }
+        long timestamp = System.currentTimeMillis();
+        while (true) {
+            long position = tail.get();
+            if (position == CLOSED) {
+                dropped.incrementAndGet();
+                return;
+            }
+            Slot slot = slots[(int) (position & mask)];
+            long difference = slot.sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slot.fill(timestamp, outcome, subject, id, tokenType, jti, kid, client);
+                    slot.sequence = position + 1;
+                    return;
+                }
+            } else if (difference < 0) {
+                if (overflowPolicy == OverflowPolicy.DROP || !running) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Writes records until the log is closed. On close, the tail is swapped for a marker so that no slot can be
+     * claimed any more, and the records claimed before are written once their producers publish them.
+     */
+    private void writeLoop() {
+        while (running) {
+            int records = drain();
+            if (records > 0) {
+                write(records);
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        long end = tail.getAndSet(CLOSED);
+        while (head < end) {
+            int records = drain();
+            if (records > 0) {
+                write(records);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        closeChannel();
+    }
+
+    /**
+     * Moves the published records to the batch, freeing their slots.
+     *
+     * @return the number of records moved.
+     */
+    private int drain() {
+        batch.setLength(0);
+        int records = 0;
+        while (records < slots.length) {
+            Slot slot = slots[(int) (head & mask)];
+            if (slot.sequence != head + 1) break;
+            slot.appendTo(batch);
+            slot.clear();
+            slot.sequence = head + slots.length;
+            head++;
+            records++;
+        }
+        return records;
+    }
+
+    private void write(int records) {
+        try {
+            if (channel == null || fileBytes >= maxFileBytes) openNextFile();
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(batch.toString());
+            while (bytes.hasRemaining()) fileBytes += channel.write(bytes);
+            channel.force(false);
+        } catch (IOException e) {
+            dropped.addAndGet(records);
+            closeChannel();
+        }
+    }
+
+    private void openNextFile() throws IOException {
+        closeChannel();
+        String name = FILE_PREFIX + System.currentTimeMillis() + "-" + fileSequence++ + FILE_SUFFIX;
+        channel = FileChannel.open(directory.resolve(name),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileBytes = 0;
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // the records of the file have already been forced or counted as dropped
+        }
+        channel = null;
+    }
+
+    /**
+     * A preallocated ring buffer slot. The sequence tells producers and the writer whose turn it is: the slot is free
+     * for position `p` when the sequence equals `p`, and holds the published record of position `p` when it equals
+     * `p + 1`. The volatile sequence write publishes the plain field writes made before it.
+     */
+    private static class Slot {
+        private volatile long sequence;
+        private long timestamp;
+        private String outcome;
+        private String subject;
+        private String id;
+        private String tokenType;
+        private String jti;
+        private String kid;
+        private String client;
+
+        Slot(long sequence) {
+            this.sequence = sequence;
+        }
+
+        void fill(long timestamp, String outcome, String subject, String id, String tokenType, String jti, String kid,
+                  String client) {
+            this.timestamp = timestamp;
+            this.outcome = outcome;
+            this.subject = subject;
+            this.id = id;
+            this.tokenType = tokenType;
+            this.jti = jti;
+            this.kid = kid;
+            this.client = client;
+        }
+
+        void clear() {
+            fill(0, null, null, null, null, null, null, null);
+        }
+
+        void appendTo(StringBuilder line) {
+            line.append("{\"ts\":").append(timestamp);
+            appendField(line, "outcome", outcome);
+            appendField(line, "sub", subject);
+            appendField(line, "id", id);
+            appendField(line, "type", tokenType);
+            appendField(line, "jti", jti);
+            appendField(line, "kid", kid);
+            appendField(line, "client", client);
+            line.append("}\n");
+        }
+
+        private static void appendField(StringBuilder line, String name, String value) {
+            if (value == null) return;
+            line.append(",\"").append(name).append("\":\"");
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    line.append('\\').append(c);
+                } else if (c < 0x20) {
+                    line.append(String.format("\\u%04x", (int) c));
+                } else {
+                    line.append(c);
+                }
+            }
+            line.append('"');
+        }
+    }
+}
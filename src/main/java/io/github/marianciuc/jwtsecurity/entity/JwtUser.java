@@ -6,9 +6,17 @@ import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * JwtUser class represents a user in the application with JWT specific details.
@@ -29,15 +37,27 @@ public class JwtUser implements JwtUserDetails {
     private final String role;
     private final String subject;
     private final TokenType type;
+    private final transient Map<String, Object> claims;
+    private transient volatile Map<String, Object> convertedClaims;
 
     /**
      * JwtUser class represents a user in the application with JWT specific details.
      */
     public JwtUser(String subject, String role, UUID id, TokenType type) {
+        this(subject, role, id, type, null);
+    }
+
+    /**
+     * JwtUser class represents a user in the application with JWT specific details.
+     * The verified claims are kept by reference and must not be modified afterwards; a claim is only converted when
+     * it is first requested, and the claims are only copied when the user is serialized.
+     */
+    public JwtUser(String subject, String role, UUID id, TokenType type, Map<String, ?> claims) {
         this.subject = subject;
         this.role = role;
         this.id = id;
         this.type = type;
+        this.claims = claims == null ? Collections.emptyMap() : Collections.unmodifiableMap(claims);
     }
 
     /**
@@ -79,6 +99,38 @@ public class JwtUser implements JwtUserDetails {
         return this.id;
     }
 
+    /**
+     * Retrieves all claims of the token the user was parsed from.
+     *
+     * @return an immutable view of the claims, or an empty map if the user was not parsed from a token.
+     */
+    @Override
+    public Map<String, Object> getClaims() {
+        return claims;
+    }
+
+    /**
+     * Returns the value of a claim converted to the requested type. Converted values are memoized, so later calls
+     * for the same claim and type don't convert it again; values already of the requested type are returned as they
+     * are. Memoized values are shared between callers and must not be modified.
+     */
+    @Override
+    public <T> T getClaim(String name, Class<T> type) {
+        Object value = claims.get(name);
+        if (value == null || type.isInstance(value)) return type.cast(value);
+        Map<String, Object> converted = convertedClaims;
+        if (converted == null) {
+            // racing threads may each create a memo; losing one only costs a repeated conversion
+            convertedClaims = converted = new ConcurrentHashMap<>();
+        } else {
+            Object memoized = converted.get(name);
+            if (type.isInstance(memoized)) return type.cast(memoized);
+        }
+        T result = JwtUserDetails.super.getClaim(name, type);
+        converted.put(name, result);
+        return result;
+    }
+
     /**
      * Retrieves the authorities (roles) granted to the user.
      *
@@ -153,4 +205,28 @@ public class JwtUser implements JwtUserDetails {
     public boolean isEnabled() {
         return DEFAULT_USER_SETTING;
     }
+
+    @Serial
+    private Object writeReplace() {
+        return new SerializedForm(subject, role, id, type, new LinkedHashMap<>(claims));
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("JwtUser is deserialized through its serialized form");
+    }
+
+    /**
+     * The serialized form of a JwtUser, holding a copy of the claims taken when the user is serialized.
+     */
+    private record SerializedForm(String subject, String role, UUID id, TokenType type,
+                                  LinkedHashMap<String, Object> claims) implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        @Serial
+        private Object readResolve() {
+            return new JwtUser(subject, role, id, type, claims);
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package io.github.marianciuc.jwtsecurity.entity;
+
+/**
+ * TenantSettings class holds the token settings of one tenant: the name tokens are issued under, the secret key
+ * tokens are signed and verified with, and the token expirations.
+ *
+ * @author Vladimir Marianciuc
+ * @version 1.0
+ */
+public class TenantSettings {
+
+    private final String serviceName;
+    private final String secretKey;
+    private final Long accessExpiration;
+    private final Long refreshExpiration;
+
+    /**
+     * TenantSettings class constructor.
+     *
+     * @param serviceName       the name of the tenant service.
+     * @param secretKey         the secret key of the tenant JWTs.
+     * @param accessExpiration  access token expiration time.
+     * @param refreshExpiration refresh token expiration time.
+     */
+    public TenantSettings(String serviceName, String secretKey, Long accessExpiration, Long refreshExpiration) {
+        this.serviceName = serviceName;
+        this.secretKey = secretKey;
+        this.accessExpiration = accessExpiration;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getSecretKey() {
+        return secretKey;
+    }
+
+    public Long getAccessExpiration() {
+        return accessExpiration;
+    }
+
+    public Long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.marianciuc.jwtsecurity.enums;
+
+import io.github.marianciuc.jwtsecurity.exceptions.JsonWebTokenExpiredException;
+import io.github.marianciuc.jwtsecurity.exceptions.JwtSecurityException;
+import io.github.marianciuc.jwtsecurity.exceptions.UnsupportedJsonWebTokenException;
+import io.jsonwebtoken.CompressionException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.RequiredTypeException;
+import io.jsonwebtoken.security.SignatureException;
+
+/**
+ * The VerificationOutcome enumeration classifies the result of verifying a token. It is used wherever verification
+ * results are reported instead of thrown, such as the bulk verification tool.
+ * @version 1.0
+ * @author Vladimir Marianciuc
+ */
+public enum VerificationOutcome {
+    /**
+     * The token carries a valid signature and has not expired.
+     */
+    VALID,
+    /**
+     * The token carries a valid signature but has expired.
+     */
+    EXPIRED,
+    /**
+     * The token signature does not match the verification key.
+     */
+    INVALID_SIGNATURE,
+    /**
+     * The token is not a well-formed JWT, misses the required claims or inflates beyond the decompression limit.
+     */
+    MALFORMED,
+    /**
+     * The token is a JWT in a format the library does not support.
+     */
+    UNSUPPORTED,
+    /**
+     * The token is valid but is not of the requested token type.
+     */
+    WRONG_TYPE,
+    /**
+     * The token names a tenant the tenant registry does not know.
+     */
+    UNKNOWN_TENANT,
+    /**
+     * The client was throttled for repeated failures and its token was not verified.
+     */
+    THROTTLED,
+    /**
+     * The token could not be verified for any other reason.
+     */
+    INVALID;
+
+    /**
+     * Classifies the exception thrown while verifying a token.
+     *
+     * @param exception the exception thrown by the verification.
+     * @return the outcome matching the exception.
+     */
+    public static VerificationOutcome of(RuntimeException exception) {
+        if (exception instanceof JsonWebTokenExpiredException) return EXPIRED;
+        if (exception instanceof SignatureException) return INVALID_SIGNATURE;
+        if (exception instanceof UnsupportedJsonWebTokenException) return UNSUPPORTED;
+        if (exception instanceof JwtSecurityException) return WRONG_TYPE;
+        if (exception instanceof MalformedJwtException
+                || exception instanceof CompressionException
+                || exception instanceof RequiredTypeException
+                || exception instanceof IllegalArgumentException
+                || exception instanceof NullPointerException) return MALFORMED;
+        return INVALID;
+    }
+}
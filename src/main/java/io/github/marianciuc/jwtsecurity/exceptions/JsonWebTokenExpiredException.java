@@ -1,12 +1,51 @@
 package io.github.marianciuc.jwtsecurity.exceptions;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * The JsonWebTokenExpiredException class represents an exception that is thrown when a JSON Web Token (JWT) has expired.
+ * The verified claims of the expired token are kept, so callers can still tell whose token expired and when.
  * @author Vladimir Marianciuc
  * @version 1.0
  */
 public class JsonWebTokenExpiredException extends RuntimeException {
+    private transient Map<String, Object> claims;
+
     public JsonWebTokenExpiredException(String message, String exception) {
+        this(message, exception, null);
+    }
+
+    public JsonWebTokenExpiredException(String message, String exception, Map<String, ?> claims) {
         super(message + exception);
+        this.claims = claims == null ? Collections.emptyMap() : Collections.unmodifiableMap(claims);
+    }
+
+    /**
+     * Returns the claims of the expired token. They are kept by reference and only copied when the exception is
+     * serialized.
+     *
+     * @return an immutable view of the claims, or an empty map if they are unknown.
+     */
+    public Map<String, Object> getClaims() {
+        return claims;
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(new LinkedHashMap<>(claims));
+    }
+
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        claims = Collections.unmodifiableMap((Map<String, Object>) in.readObject());
     }
 }
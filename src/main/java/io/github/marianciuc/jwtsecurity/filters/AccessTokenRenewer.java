@@ -0,0 +1,115 @@
+package io.github.marianciuc.jwtsecurity.filters;
+
+import io.github.marianciuc.jwtsecurity.service.JsonWebTokenService;
+import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
+import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+import io.jsonwebtoken.Claims;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The `AccessTokenRenewer` class issues a fresh access token when a valid access token is about to expire, so that
+ * clients can swap tokens without calling a refresh endpoint. Renewals are shared per token: concurrent requests
+ * carrying the same expiring token wait for a single renewal and all receive the same fresh token.
+ * <p>
+ * Renewals are kept until the token they renew expires, and at most `maxEntries` of them are kept; beyond that, the
+ * oldest renewals are evicted. Expired and evicted renewals are dropped whenever a new renewal is stored, in the order
+ * they were stored, so serving a shared renewal never scans the stored ones. Fresh tokens are generated with
+ * {@link JsonWebTokenService#generateAccessToken(JwtUserDetails, Map)} and carry the custom claims of the token they
+ * renew; the claims set by the service itself, such as the expiration and the token id, are issued anew.
+ *
+ * @author Vladimir Marianciuc
+ * @version 1.0
+ */
+public class AccessTokenRenewer {
+
+    /**
+     * The default response header carrying the fresh access token.
+     */
+    public static final String DEFAULT_RESPONSE_HEADER = "X-Renewed-Access-Token";
+
+    private static final Set<String> ISSUED_CLAIMS = Set.of(
+            Claims.SUBJECT, Claims.EXPIRATION, Claims.ID, Claims.ISSUER, Claims.ISSUED_AT, Claims.NOT_BEFORE,
+            JsonWebTokenServiceImpl.ROLE_CLAIM, JsonWebTokenServiceImpl.ID_CLAIM, JsonWebTokenServiceImpl.TOKEN_TYPE_CLAIM);
+
+    private final JsonWebTokenService jsonWebTokenService;
+    private final long renewalWindowMillis;
+    private final String responseHeader;
+    private final int maxEntries;
+    private final Map<String, Renewal> renewals = new ConcurrentHashMap<>();
+    private final Queue<String> order = new ArrayDeque<>();
+
+    /**
+     * AccessTokenRenewer class constructor.
+     *
+     * @param jsonWebTokenService the service generating fresh access tokens.
+     * @param renewalWindow       the time before expiration from which tokens are renewed.
+     * @param responseHeader      the response header carrying the fresh access token.
+     * @param maxEntries          the maximum number of shared renewals kept.
+     */
+    public AccessTokenRenewer(JsonWebTokenService jsonWebTokenService, Duration renewalWindow, String responseHeader, int maxEntries) {
+        this.jsonWebTokenService = jsonWebTokenService;
+        this.renewalWindowMillis = renewalWindow.toMillis();
+        this.responseHeader = responseHeader;
+        this.maxEntries = maxEntries;
+    }
+
+    public String getResponseHeader() {
+        return responseHeader;
+    }
+
+    /**
+     * Renews the given access token if it expires within the renewal window.
+     *
+     * @param token       the verified access token.
+     * @param userDetails the user details parsed from the token.
+     * @return the fresh access token, or null if the token does not need renewal.
+     */
+    public String renewIfExpiring(String token, JwtUserDetails userDetails) {
+        Date expiration = userDetails.getClaim(Claims.EXPIRATION, Date.class);
+        if (expiration == null) return null;
+        long now = System.currentTimeMillis();
+        long expiresAt = expiration.getTime();
+        if (expiresAt - now > renewalWindowMillis) return null;
+
+        Renewal renewal = renewals.get(token);
+        if (renewal != null) return renewal.token;
+        Renewal[] created = new Renewal[1];
+        renewal = renewals.computeIfAbsent(token, key -> created[0] = new Renewal(renew(userDetails), expiresAt));
+        if (renewal == created[0]) store(token, now);
+        return renewal.token;
+    }
+
+    /**
+     * Records a new renewal, then drops the oldest renewals while they are expired or too many are kept.
+     */
+    private void store(String token, long now) {
+        synchronized (order) {
+            order.add(token);
+            for (String oldest = order.peek(); oldest != null; oldest = order.peek()) {
+                if (renewals.size() <= maxEntries && renewals.get(oldest).expiresAt > now) return;
+                order.poll();
+                renewals.remove(oldest);
+            }
+        }
+    }
+
+    private String renew(JwtUserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>(userDetails.getClaims());
+        claims.keySet().removeAll(ISSUED_CLAIMS);
+        return jsonWebTokenService.generateAccessToken(userDetails, claims);
+    }
+
+    /**
+     * A fresh access token with the expiration of the token it renews.
+     */
+    private record Renewal(String token, long expiresAt) {
+    }
+}
@@ -1,6 +1,8 @@
 package io.github.marianciuc.jwtsecurity.filters;
 
+import io.github.marianciuc.jwtsecurity.audit.AuditLog;
 import io.github.marianciuc.jwtsecurity.service.JsonWebTokenService;
+import io.github.marianciuc.jwtsecurity.service.JwtTimings;
 import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
 import io.github.marianciuc.jwtsecurity.service.UserService;
 import jakarta.servlet.FilterChain;
@@ -8,6 +10,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
@@ -23,25 +26,118 @@ import java.io.IOException;
 public class JsonWebTokenFilter extends OncePerRequestFilter {
 
     private final static String BEARER_STR = "Bearer ";
+    private final static String TOO_MANY_FAILURES = "Too many failed token verifications";
+    private final static String SERVER_TIMING = "Server-Timing";
     private final JsonWebTokenService jsonWebTokenService;
     private final UserService userService;
+    private VerificationFailureLimiter failureLimiter;
+    private AccessTokenRenewer tokenRenewer;
+    private boolean timingEnabled;
+    private AuditLog auditLog;
 
     public JsonWebTokenFilter(JsonWebTokenService jsonWebTokenService, UserService userService) {
         this.jsonWebTokenService = jsonWebTokenService;
         this.userService = userService;
     }
 
+    /**
+     * Sets the limiter throttling clients whose tokens keep failing verification. Requests of throttled clients are
+     * rejected with `429 Too Many Requests` before their token is verified.
+     *
+     * @param failureLimiter the limiter, or null to disable throttling.
+     */
+    public void setFailureLimiter(VerificationFailureLimiter failureLimiter) {
+        this.failureLimiter = failureLimiter;
+    }
+
+    /**
+     * Sets the audit log recording the requests of throttled clients, which are rejected before any token service
+     * sees their token.
+     *
+     * @param auditLog the audit log, or null to disable auditing.
+     */
+    public void setAuditLog(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * Sets the renewer issuing fresh access tokens for tokens close to expiration. Fresh tokens are returned in the
+     * renewer's response header; browser clients need the header listed in `Access-Control-Expose-Headers`.
+     *
+     * @param tokenRenewer the renewer, or null to disable renewal.
+     */
+    public void setTokenRenewer(AccessTokenRenewer tokenRenewer) {
+        this.tokenRenewer = tokenRenewer;
+    }
+
+    /**
+     * Enables recording how long each phase of authenticating a request takes. The timings are returned in a
+     * `Server-Timing` response header and stored in the {@link JwtTimings#REQUEST_ATTRIBUTE} request attribute,
+     * whose string form can be used in access log patterns.
+     *
+     * @param timingEnabled true to record timings.
+     */
+    public void setTimingEnabled(boolean timingEnabled) {
+        this.timingEnabled = timingEnabled;
+    }
+
     @Override
     public void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        JwtTimings timings = timingEnabled ? JwtTimings.start() : null;
+        boolean authenticated;
+        try {
+            authenticated = authenticate(request, response, timings);
+        } finally {
+            if (timings != null) {
+                timings.finish();
+                response.addHeader(SERVER_TIMING, timings.toString());
+                request.setAttribute(JwtTimings.REQUEST_ATTRIBUTE, timings);
+            }
+        }
+
+        // The error is sent only after the timings header was added, since sending it commits the response.
+        if (!authenticated) response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), TOO_MANY_FAILURES);
+        else filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Authenticates the user of the request if it carries a bearer token.
+     *
+     * @param request the HTTP servlet request.
+     * @param response the HTTP servlet response.
+     * @param timings the timings of the request, or null if timings are not recorded.
+     * @return false if the client is throttled and the request must be rejected with `429 Too Many Requests`.
+     */
+    private boolean authenticate(HttpServletRequest request, HttpServletResponse response, JwtTimings timings) {
+        long start = timings != null ? System.nanoTime() : 0L;
         final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_STR)) return true;
+        String jwt = authHeader.substring(BEARER_STR.length());
+        if (timings != null) start = timings.record(JwtTimings.Phase.EXTRACT, start);
 
+        String clientKey = failureLimiter != null ? failureLimiter.resolveClientKey(request) : null;
+        if (clientKey != null && failureLimiter.isBlocked(clientKey)) {
+            if (auditLog != null) auditLog.throttled(clientKey);
+            return false;
+        }
+        if (timings != null) timings.record(JwtTimings.Phase.PRECHECK, start);
 
-        if (authHeader != null && authHeader.startsWith(BEARER_STR)) {
-            String jwt = authHeader.substring(BEARER_STR.length());
-            JwtUserDetails userDetails = jsonWebTokenService.parseAccessToken(jwt);
-            userService.setUserAuthentication(userDetails, request);
+        JwtUserDetails userDetails;
+        try {
+            userDetails = jsonWebTokenService.parseAccessToken(jwt);
+        } catch (RuntimeException e) {
+            if (clientKey != null) failureLimiter.recordFailure(clientKey);
+            throw e;
         }
 
-        filterChain.doFilter(request, response);
+        if (timings != null) start = System.nanoTime();
+        userService.setUserAuthentication(userDetails, request);
+        if (timings != null) timings.record(JwtTimings.Phase.AUTHENTICATE, start);
+
+        if (tokenRenewer != null) {
+            String renewedToken = tokenRenewer.renewIfExpiring(jwt, userDetails);
+            if (renewedToken != null) response.setHeader(tokenRenewer.getResponseHeader(), renewedToken);
+        }
+        return true;
     }
 }
@@ -0,0 +1,182 @@
+package io.github.marianciuc.jwtsecurity.filters;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * The `VerificationFailureLimiter` class throttles clients that keep presenting tokens failing verification. Each
+ * client has a token bucket of failures: a client may fail `maxFailures` times in a row, and regains one failure
+ * every `refillInterval`. Once the bucket is empty, the client is blocked until it refills.
+ * <p>
+ * Buckets live in a fixed-size lock-free table, so memory stays bounded whatever the number of clients. A client
+ * hashes to two slots; when both are held by other clients, the one that refills first is evicted. Checking a client
+ * only reads the table, so clients that don't fail verification never write to it and never contend.
+ *
+ * @author Vladimir Marianciuc
+ * @version 1.0
+ */
+public class VerificationFailureLimiter {
+
+    private final AtomicReferenceArray<Bucket> slots;
+    private final int mask;
+    private final long refillNanos;
+    private final long blockThresholdNanos;
+    private final String clientKeyHeader;
+
+    /**
+     * VerificationFailureLimiter class constructor.
+     *
+     * @param capacity        the number of slots of the bucket table, rounded up to a power of two.
+     * @param maxFailures     the number of failures a client may accumulate before it is blocked.
+     * @param refillInterval  the time after which a client regains one failure.
+     * @param clientKeyHeader the request header identifying the client, or null to use the remote address.
+     */
+    public VerificationFailureLimiter(int capacity, int maxFailures, Duration refillInterval, String clientKeyHeader) {
+        if (capacity < 2 || maxFailures < 1 || refillInterval.isNegative() || refillInterval.isZero()) {
+            throw new IllegalArgumentException("capacity must be at least 2, maxFailures and refillInterval positive");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.refillNanos = refillInterval.toNanos();
+        this.blockThresholdNanos = refillNanos * (maxFailures - 1);
+        this.clientKeyHeader = clientKeyHeader;
+    }
+
+    /**
+     * Returns the key identifying the client of the given request: the value of the client key header if configured
+     * and present, the remote address otherwise.
+     *
+     * @param request the HTTP servlet request.
+     * @return the key of the client.
+     */
+    public String resolveClientKey(HttpServletRequest request) {
+        if (clientKeyHeader != null) {
+            String key = request.getHeader(clientKeyHeader);
+            if (key != null && !key.isEmpty()) return key;
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * Checks whether the given client has exhausted its failures.
+     *
+     * @param clientKey the key of the client.
+     * @return true if the client must be rejected without verifying its token.
+     */
+    public boolean isBlocked(String clientKey) {
+        Bucket bucket = find(clientKey);
+        return bucket != null && bucket.theoreticalArrival - System.nanoTime() > blockThresholdNanos;
+    }
+
+    /**
+     * Records a verification failure of the given client.
+     *
+     * @param clientKey the key of the client.
+     */
+    public void recordFailure(String clientKey) {
+        update(clientKey, (arrival, now) -> Math.max(arrival, now) + refillNanos);
+    }
+
+    /**
+     * Returns the clients whose bucket is not full, with the time their bucket will be full again.
+     *
+     * @return the time each client's bucket is full again, in epoch milliseconds, by client key.
+     */
+    public Map<String, Long> getPendingRefills() {
+        long now = System.nanoTime();
+        long epochNow = System.currentTimeMillis();
+        Map<String, Long> refills = new HashMap<>();
+        for (int i = 0; i < slots.length(); i++) {
+            Bucket bucket = slots.get(i);
+            if (bucket != null && bucket.theoreticalArrival - now > 0) {
+                refills.put(bucket.clientKey, epochNow + (bucket.theoreticalArrival - now) / 1_000_000);
+            }
+        }
+        return refills;
+    }
+
+    /**
+     * Restores the bucket of a client, for instance from a snapshot taken before a restart. A bucket holding more
+     * failures than the restored one is kept as is.
+     *
+     * @param clientKey the key of the client.
+     * @param refilledAtEpochMillis the time the client's bucket is full again, in epoch milliseconds.
+     */
+    public void restoreRefill(String clientKey, long refilledAtEpochMillis) {
+        long remainingNanos = (refilledAtEpochMillis - System.currentTimeMillis()) * 1_000_000;
+        if (remainingNanos <= 0) return;
+        update(clientKey, (arrival, now) -> Math.max(arrival, now + remainingNanos));
+    }
+
+    /**
+     * Replaces the bucket of a client in one of its two slots. If the client has no bucket yet, the slot whose bucket
+     * refills first is taken over.
+     *
+     * @param clientKey the key of the client.
+     * @param nextArrival computes the new theoretical arrival time from the current one (the current time for a new
+     *                    bucket) and the current time.
+     */
+    private void update(String clientKey, LongBinaryOperator nextArrival) {
+        int hash = spread(clientKey.hashCode());
+        int first = hash & mask;
+        int second = (hash >>> 16 | hash << 16) & mask;
+        while (true) {
+            long now = System.nanoTime();
+            Bucket firstBucket = slots.get(first);
+            Bucket secondBucket = slots.get(second);
+            int index;
+            Bucket current;
+            if (firstBucket != null && firstBucket.clientKey.equals(clientKey)) {
+                index = first;
+                current = firstBucket;
+            } else if (secondBucket != null && secondBucket.clientKey.equals(clientKey)) {
+                index = second;
+                current = secondBucket;
+            } else if (refillsBefore(firstBucket, secondBucket)) {
+                index = first;
+                current = firstBucket;
+            } else {
+                index = second;
+                current = secondBucket;
+            }
+
+            long arrival = current != null && current.clientKey.equals(clientKey) ? current.theoreticalArrival : now;
+            Bucket next = new Bucket(clientKey, nextArrival.applyAsLong(arrival, now));
+            if (slots.compareAndSet(index, current, next)) return;
+        }
+    }
+
+    private Bucket find(String clientKey) {
+        int hash = spread(clientKey.hashCode());
+        Bucket bucket = slots.get(hash & mask);
+        if (bucket != null && bucket.clientKey.equals(clientKey)) return bucket;
+        bucket = slots.get((hash >>> 16 | hash << 16) & mask);
+        if (bucket != null && bucket.clientKey.equals(clientKey)) return bucket;
+        return null;
+    }
+
+    private static boolean refillsBefore(Bucket first, Bucket second) {
+        if (first == null) return true;
+        if (second == null) return false;
+        return first.theoreticalArrival - second.theoreticalArrival <= 0;
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 15);
+    }
+
+    /**
+     * The failure bucket of a client, in the form of the theoretical arrival time of the generic cell rate
+     * algorithm: the bucket is full once the time has passed, and each failure pushes it one refill interval
+     * further. Buckets are immutable and replaced atomically.
+     */
+    private record Bucket(String clientKey, long theoreticalArrival) {
+    }
+}
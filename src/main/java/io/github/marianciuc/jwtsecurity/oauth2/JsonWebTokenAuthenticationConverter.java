@@ -0,0 +1,76 @@
+package io.github.marianciuc.jwtsecurity.oauth2;
+
+import io.github.marianciuc.jwtsecurity.entity.JwtUser;
+import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl.ID_CLAIM;
+import static io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl.ROLE_CLAIM;
+import static io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl.TOKEN_TYPE_CLAIM;
+
+/**
+ * The `JsonWebTokenAuthenticationConverter` class converts a token verified by a resource server into the same
+ * authentication {@link io.github.marianciuc.jwtsecurity.filters.JsonWebTokenFilter} sets: a
+ * {@link JwtUserDetails} principal holding the `ROLE`, `ID` and `TOKEN_TYPE` claims, with the role as its only
+ * authority. Code reading the current user through {@link io.github.marianciuc.jwtsecurity.service.UserService}
+ * works the same whichever security stack verified the token.
+ * <p>
+ * Spring only hands the {@link Jwt} from the decoder to the converter, so the principal is rebuilt from the verified
+ * claims of the token; the claims are not verified again. Timestamps are turned back into the epoch seconds the
+ * token carries, so the principal's claims are the same as those of a principal parsed by the token service.
+ *
+ * @author Vladimir Marianciuc
+ * @version 1.0
+ */
+public class JsonWebTokenAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private static final String MISSING_CLAIMS =
+            "The provided token does not carry the sub, ROLE, ID and TOKEN_TYPE claims";
+
+    /**
+     * Converts a verified token into an authenticated token with a {@link JwtUserDetails} principal.
+     *
+     * @param jwt the verified token.
+     * @return the authentication of the token's user.
+     * @throws InvalidBearerTokenException if the token does not carry the library's claims, or carries a blank
+     *                                     subject or role.
+     */
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        String subject = jwt.getSubject();
+        String role = jwt.getClaimAsString(ROLE_CLAIM);
+        String id = jwt.getClaimAsString(ID_CLAIM);
+        String tokenType = jwt.getClaimAsString(TOKEN_TYPE_CLAIM);
+        if (subject == null || subject.isBlank() || role == null || role.isBlank() || id == null || tokenType == null) {
+            throw new InvalidBearerTokenException(MISSING_CLAIMS);
+        }
+
+        JwtUserDetails userDetails;
+        try {
+            userDetails = new JwtUser(subject, role, UUID.fromString(id), TokenType.valueOf(tokenType),
+                    toClaims(jwt.getClaims()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidBearerTokenException(MISSING_CLAIMS, e);
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(userDetails, null, userDetails.getAuthorities());
+    }
+
+    /**
+     * Copies the claims of a Spring token, turning the timestamps Spring holds as instants back into epoch seconds.
+     */
+    private static Map<String, Object> toClaims(Map<String, Object> values) {
+        Map<String, Object> claims = new HashMap<>(values);
+        claims.replaceAll((name, value) -> value instanceof Instant instant ? instant.getEpochSecond() : value);
+        return claims;
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.marianciuc.jwtsecurity.oauth2;
+
+import io.github.marianciuc.jwtsecurity.service.JsonWebTokenService;
+import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
+import io.github.marianciuc.jwtsecurity.service.impl.TokenSegments;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * The `JsonWebTokenDecoder` class lets services built on `spring-security-oauth2-resource-server` verify the
+ * library's access tokens with the library's own engine instead of {@code NimbusJwtDecoder}. Tokens are verified by
+ * {@link JsonWebTokenService#parseAccessToken(String)}, so the signature, expiration, issuer and token type checks are
+ * exactly those of {@link io.github.marianciuc.jwtsecurity.filters.JsonWebTokenFilter}, and the verified claims are
+ * handed over to Spring without being parsed again. The service does not expose the token header, so the small
+ * header segment alone is decoded a second time, once the token is verified.
+ * <p>
+ * Pair it with {@link JsonWebTokenAuthenticationConverter} to authenticate requests with a {@link JwtUserDetails}
+ * principal:
+ * <pre>{@code
+ * http.oauth2ResourceServer(server -> server.jwt(jwt -> jwt
+ *         .decoder(new JsonWebTokenDecoder(jsonWebTokenService))
+ *         .jwtAuthenticationConverter(new JsonWebTokenAuthenticationConverter())));
+ * }</pre>
+ *
+ * @author Vladimir Marianciuc
+ * @version 1.0
+ */
+public class JsonWebTokenDecoder implements JwtDecoder {
+
+    private static final String INVALID_TOKEN = "The provided token failed verification: ";
+
+    private final JsonWebTokenService jsonWebTokenService;
+
+    /**
+     * JsonWebTokenDecoder class constructor.
+     *
+     * @param jsonWebTokenService the service verifying tokens.
+     */
+    public JsonWebTokenDecoder(JsonWebTokenService jsonWebTokenService) {
+        this.jsonWebTokenService = jsonWebTokenService;
+    }
+
+    /**
+     * Verifies an access token and returns its headers and claims.
+     *
+     * @param token the access token.
+     * @return the verified token.
+     * @throws BadJwtException if the token is malformed, expired, forged or not an access token.
+     */
+    @Override
+    public Jwt decode(String token) {
+        JwtUserDetails userDetails;
+        Map<String, ?> headers;
+        try {
+            userDetails = jsonWebTokenService.parseAccessToken(token);
+            headers = TokenSegments.readHeader(token);
+        } catch (RuntimeException e) {
+            throw new BadJwtException(INVALID_TOKEN + e.getMessage(), e);
+        }
+        Jwt.Builder jwt = Jwt.withTokenValue(token)
+                .headers(values -> values.putAll(headers))
+                .claims(values -> values.putAll(userDetails.getClaims()));
+        Date expiresAt = userDetails.getClaim(Claims.EXPIRATION, Date.class);
+        if (expiresAt != null) jwt.expiresAt(expiresAt.toInstant());
+        Date issuedAt = userDetails.getClaim(Claims.ISSUED_AT, Date.class);
+        if (issuedAt != null) jwt.issuedAt(issuedAt.toInstant());
+        Date notBefore = userDetails.getClaim(Claims.NOT_BEFORE, Date.class);
+        if (notBefore != null) jwt.notBefore(notBefore.toInstant());
+        return jwt.build();
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.marianciuc.jwtsecurity.service;
+
+import java.util.UUID;
+
+/**
+ * This interface is used to generate the unique ids of tokens (the `jti` claim) and of service tokens.
+ * Implementations must be safe to call from many threads at once.
+ * @version 1.0
+ * @author Vladimir Marianciuc
+ */
+public interface IdGenerator {
+    UUID generate();
+}
@@ -1,7 +1,9 @@
 package io.github.marianciuc.jwtsecurity.service;
 
 import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.exceptions.JwtSecurityException;
 
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -14,8 +16,50 @@ import java.util.UUID;
 public interface JsonWebTokenService {
     JwtUserDetails create(String subject, String role, UUID id, TokenType tokenType);
     String generateAccessToken(JwtUserDetails userDetails);
+
+    /**
+     * Generates an access token carrying additional custom claims. Implementations that do not support custom claims
+     * keep this default, which only accepts an empty claim map.
+     *
+     * @throws UnsupportedOperationException if claims are given and the implementation does not support them.
+     */
+    default String generateAccessToken(JwtUserDetails userDetails, Map<String, ?> claims) {
+        if (claims == null || claims.isEmpty()) return generateAccessToken(userDetails);
+        throw new UnsupportedOperationException("Custom claims are not supported by " + getClass().getName());
+    }
+
     String generateRefreshToken(JwtUserDetails userDetails);
+
+    /**
+     * Generates a refresh token carrying additional custom claims. Implementations that do not support custom claims
+     * keep this default, which only accepts an empty claim map.
+     *
+     * @throws UnsupportedOperationException if claims are given and the implementation does not support them.
+     */
+    default String generateRefreshToken(JwtUserDetails userDetails, Map<String, ?> claims) {
+        if (claims == null || claims.isEmpty()) return generateRefreshToken(userDetails);
+        throw new UnsupportedOperationException("Custom claims are not supported by " + getClass().getName());
+    }
+
+    /**
+     * Generates a token authenticating this service.
+     *
+     * @throws JwtSecurityException if the implementation can't tell which issuer the token belongs to, such as a
+     * multi-tenant service without a default tenant.
+     */
     String generateServiceToken();
     JwtUserDetails parseRefreshToken(String token);
     JwtUserDetails parseAccessToken(String token);
+
+    /**
+     * Parses a token of either type. The default tries the token as an access token and falls back to a refresh
+     * token when the type does not match, so it may verify the signature twice; implementations should override it.
+     */
+    default JwtUserDetails parseToken(String token) {
+        try {
+            return parseAccessToken(token);
+        } catch (JwtSecurityException e) {
+            return parseRefreshToken(token);
+        }
+    }
 }
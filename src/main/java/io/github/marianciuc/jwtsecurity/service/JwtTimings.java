@@ -0,0 +1,119 @@
+package io.github.marianciuc.jwtsecurity.service;
+
+/**
+ * The JwtTimings class records how long each phase of authenticating a request with a JWT took. The filter starts
+ * the timings of a request on the current thread and the token service adds its phases to them; when no timings are
+ * started, the phases are not measured at all.
+ * <p>
+ * Durations are measured with {@link System#nanoTime()}. The string form of the timings is a `Server-Timing` header
+ * value, e.g. `jwt-extract;dur=0.004, jwt-precheck;dur=0.001, jwt-verify;dur=0.210, jwt-claims;dur=0.012,
+ * jwt-auth;dur=0.020`, with durations in milliseconds.
+ * @version 1.0
+ * @author Vladimir Marianciuc
+ */
+public final class JwtTimings {
+
+    /**
+     * The name of the request attribute holding the timings of the request.
+     */
+    public static final String REQUEST_ATTRIBUTE = "jwt.timings";
+
+    private static final ThreadLocal<JwtTimings> CURRENT = new ThreadLocal<>();
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long[] durations = new long[PHASES.length];
+
+    private JwtTimings() {
+    }
+
+    /**
+     * Starts recording timings on the current thread.
+     *
+     * @return the timings of the current thread.
+     */
+    public static JwtTimings start() {
+        JwtTimings timings = new JwtTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /**
+     * Returns the timings recorded on the current thread.
+     *
+     * @return the timings of the current thread, or null if no timings are started.
+     */
+    public static JwtTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stops recording timings on the current thread.
+     */
+    public void finish() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Adds the time elapsed since the given start to a phase.
+     *
+     * @param phase the phase to add the elapsed time to.
+     * @param startNanos the start of the phase, as returned by {@link System#nanoTime()}.
+     * @return the end of the phase, to be used as the start of the next phase.
+     */
+    public long record(Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        durations[phase.ordinal()] += now - startNanos;
+        return now;
+    }
+
+    public long getNanos(Phase phase) {
+        return durations[phase.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder value = new StringBuilder(128);
+        for (Phase phase : PHASES) {
+            if (!value.isEmpty()) value.append(", ");
+            long micros = durations[phase.ordinal()] / 1000;
+            value.append(phase.metric).append(";dur=").append(micros / 1000).append('.');
+            long fraction = micros % 1000;
+            if (fraction < 100) value.append('0');
+            if (fraction < 10) value.append('0');
+            value.append(fraction);
+        }
+        return value.toString();
+    }
+
+    /**
+     * The measured phases of authenticating a request.
+     */
+    public enum Phase {
+        /**
+         * Reading the token from the `Authorization` header.
+         */
+        EXTRACT("jwt-extract"),
+        /**
+         * Checks made before the token is verified, such as failure throttling.
+         */
+        PRECHECK("jwt-precheck"),
+        /**
+         * Verifying the signature and expiration of the token.
+         */
+        VERIFY("jwt-verify"),
+        /**
+         * Mapping the verified claims to the user details.
+         */
+        CLAIMS("jwt-claims"),
+        /**
+         * Setting the user authentication in the security context.
+         */
+        AUTHENTICATE("jwt-auth");
+
+        private final String metric;
+
+        Phase(String metric) {
+            this.metric = metric;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package io.github.marianciuc.jwtsecurity.service;
 
 import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.exceptions.IncorrectDataException;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -15,4 +20,35 @@ public interface JwtUserDetails extends UserDetails {
     TokenType getType();
     boolean isService();
     UUID getId();
+
+    /**
+     * Returns the value of a claim carried by the token, read from {@link #getClaims()} and converted to the
+     * requested type. Numeric dates such as {@code exp} are returned as {@link Date} when a Date is requested.
+     *
+     * @param name the name of the claim.
+     * @param type the expected type of the claim value.
+     * @return the claim value, or null if the token does not carry the claim.
+     * @throws IncorrectDataException if the claim value cannot be converted to the requested type.
+     */
+    default <T> T getClaim(String name, Class<T> type) {
+        Object value = getClaims().get(name);
+        if (value == null || type.isInstance(value)) return type.cast(value);
+        if (type == Date.class && value instanceof Number seconds) {
+            return type.cast(new Date((long) (seconds.doubleValue() * 1000)));
+        }
+        if (type == Date.class && value instanceof Instant instant) return type.cast(Date.from(instant));
+        if (type == Long.class && (value instanceof Integer || value instanceof Short || value instanceof Byte)) {
+            return type.cast(((Number) value).longValue());
+        }
+        throw new IncorrectDataException("Claim " + name + " is not of type " + type.getSimpleName());
+    }
+
+    /**
+     * Returns all claims carried by the token, reserved claims included, as parsed.
+     *
+     * @return an immutable map of the claims, or an empty map if the user was not parsed from a token.
+     */
+    default Map<String, Object> getClaims() {
+        return Collections.emptyMap();
+    }
 }
@@ -0,0 +1,14 @@
+package io.github.marianciuc.jwtsecurity.service;
+
+import io.github.marianciuc.jwtsecurity.entity.TenantSettings;
+
+/**
+ * This interface is used to look up the token settings of a tenant. Implementations may load tenants from any
+ * source; looked-up tenants are cached by the multi-tenant token service, so lookups only happen for tenants that
+ * are not cached.
+ * @version 1.0
+ * @author Vladimir Marianciuc
+ */
+public interface TenantRegistry {
+    TenantSettings findTenant(String tenantId);
+}
@@ -0,0 +1,91 @@
+package io.github.marianciuc.jwtsecurity.service.impl;
+
+import io.jsonwebtoken.CompressionException;
+import io.jsonwebtoken.io.CompressionAlgorithm;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A compression algorithm delegating to a standard one, whose decompression fails as soon as the decompressed payload
+ * exceeds a limit. It guards the parser against decompression bombs: small tokens inflating to huge payloads.
+ *
+ * @author Vladimir Marianciuc
+ * @version 1.0
+ */
+final class BoundedCompressionAlgorithm implements CompressionAlgorithm {
+
+    private static final String LIMIT_EXCEEDED = "The decompressed payload exceeds the limit of %d bytes";
+
+    private final CompressionAlgorithm delegate;
+    private final long maxDecompressedBytes;
+
+    /**
+     * BoundedCompressionAlgorithm class constructor.
+     *
+     * @param delegate             the algorithm compressing and decompressing payloads.
+     * @param maxDecompressedBytes the maximum size of a decompressed payload.
+     */
+    BoundedCompressionAlgorithm(CompressionAlgorithm delegate, long maxDecompressedBytes) {
+        this.delegate = delegate;
+        this.maxDecompressedBytes = maxDecompressedBytes;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public OutputStream compress(OutputStream out) {
+        return delegate.compress(out);
+    }
+
+    @Override
+    public InputStream decompress(InputStream in) {
+        return new LimitedInputStream(delegate.decompress(in));
+    }
+
+    /**
+     * Counts the bytes read and throws a {@link CompressionException} once the limit is exceeded, and on every read
+     * after that: the parser retries reading a payload it failed to deserialize as claims.
+     */
+    private class LimitedInputStream extends FilterInputStream {
+        private long remaining = maxDecompressedBytes;
+
+        LimitedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            consume(0);
+            int b = super.read();
+            if (b >= 0) consume(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            consume(0);
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining + 1));
+            if (read > 0) consume(read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            consume(0);
+            long skipped = super.skip(Math.min(n, remaining + 1));
+            consume(skipped);
+            return skipped;
+        }
+
+        private void consume(long bytes) {
+            remaining -= bytes;
+            if (remaining < 0) throw new CompressionException(String.format(LIMIT_EXCEEDED, maxDecompressedBytes));
+        }
+    }
+}
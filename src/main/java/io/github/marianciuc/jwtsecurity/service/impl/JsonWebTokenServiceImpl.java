@@ -1,16 +1,26 @@
 package io.github.marianciuc.jwtsecurity.service.impl;
 
+import io.github.marianciuc.jwtsecurity.audit.AuditLog;
 import io.github.marianciuc.jwtsecurity.entity.JwtUser;
 import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.enums.VerificationOutcome;
 import io.github.marianciuc.jwtsecurity.exceptions.*;
+import io.github.marianciuc.jwtsecurity.service.IdGenerator;
 import io.github.marianciuc.jwtsecurity.service.JsonWebTokenService;
+import io.github.marianciuc.jwtsecurity.service.JwtTimings;
 import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Serializer;
+import io.jsonwebtoken.jackson.io.JacksonSerializer;
 import io.jsonwebtoken.security.Keys;
 
 import javax.crypto.SecretKey;
+import java.io.ByteArrayOutputStream;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static io.github.marianciuc.jwtsecurity.entity.JwtUser.ROLE_SERVICE;
@@ -23,19 +33,31 @@ import static io.github.marianciuc.jwtsecurity.entity.JwtUser.ROLE_SERVICE;
  */
 public class JsonWebTokenServiceImpl implements JsonWebTokenService {
 
-    private static final String ROLE_CLAIM = "ROLE";
-    private static final String ID_CLAIM = "ID";
-    private static final String TOKEN_TYPE_CLAIM = "TOKEN_TYPE";
+    public static final String ROLE_CLAIM = "ROLE";
+    public static final String ID_CLAIM = "ID";
+    public static final String TOKEN_TYPE_CLAIM = "TOKEN_TYPE";
+    public static final long DEFAULT_MAX_DECOMPRESSED_BYTES = 256 * 1024;
     private static final String JWT_EXPIRED_MESSAGE = "The provided JSON Web Token (JWT) has expired. Please request a new one.";
     private static final String UNSUPPORTED_JWT = "The provided JWT is not supported. Please ensure you're using a supported JWT format.";
     private static final String KEY_DECODING_ERROR = "There was an error attempting to decode the secret key: ";
     private static final String TOKEN_MATCHING_ERROR = "The provided token does not match the token type specified in the request. Please provide a matching token.";
     private static final String SUBJECT_ROLE_ERROR = "Subject and role can't be empty";
+    private static final String RESERVED_CLAIM_ERROR = "Custom claims can't override the reserved claim: ";
+    private static final Serializer<Map<String, ?>> PAYLOAD_SERIALIZER = new JacksonSerializer<>();
+    private static final Set<String> RESERVED_CLAIMS = Set.of(
+            Claims.SUBJECT, Claims.EXPIRATION, Claims.ID, ROLE_CLAIM, ID_CLAIM, TOKEN_TYPE_CLAIM);
 
     private final String secretKey;
     private final String serviceName;
     private final Long accessExpiration;
     private final Long refreshExpiration;
+    private final String issuer;
+    private volatile SecretKey privateKey;
+    private volatile JwtParser jwtParser;
+    private volatile AuditLog auditLog;
+    private volatile IdGenerator idGenerator = new TimeOrderedIdGenerator();
+    private volatile int compressionThreshold = -1;
+    private volatile long maxDecompressedBytes = DEFAULT_MAX_DECOMPRESSED_BYTES;
 
 
     /**
@@ -47,10 +69,75 @@ public class JsonWebTokenServiceImpl implements JsonWebTokenService {
      * @param refreshExpiration refresh token expiration time.
      */
     public JsonWebTokenServiceImpl(String serviceName, String secretKey, Long accessExpiration, Long refreshExpiration) {
+        this(serviceName, secretKey, accessExpiration, refreshExpiration, null);
+    }
+
+
+    /**
+     * JsonWebTokenService class constructor for tokens bound to an issuer. Generated tokens carry the issuer as the
+     * `iss` claim and the `kid` header, and parsed tokens must carry the same `iss` claim.
+     *
+     * @param serviceName       the name of service
+     * @param secretKey         the secret key of the JWT.
+     * @param accessExpiration  access token expiration time.
+     * @param refreshExpiration refresh token expiration time.
+     * @param issuer            the issuer of the JWT, or null if tokens are not bound to an issuer.
+     */
+    public JsonWebTokenServiceImpl(String serviceName, String secretKey, Long accessExpiration, Long refreshExpiration, String issuer) {
         this.secretKey = secretKey;
         this.accessExpiration = accessExpiration;
         this.refreshExpiration = refreshExpiration;
         this.serviceName = serviceName;
+        this.issuer = issuer;
+    }
+
+
+    /**
+     * Sets the generator of token ids (the `jti` claim) and service token user ids.
+     *
+     * @param idGenerator the id generator. Must not be null.
+     */
+    public void setIdGenerator(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+
+    /**
+     * Sets the audit log recording issued tokens and verification outcomes.
+     *
+     * @param auditLog the audit log, or null to disable auditing.
+     */
+    public void setAuditLog(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+
+    /**
+     * Enables compressing the payload of large tokens. Tokens whose serialized claims are larger than the threshold
+     * are deflated and marked with a `zip` header; smaller tokens are left as they are.
+     * <p>
+     * Compression is opt-in and meant for closed deployments where every verifier uses this library or JJWT: RFC 7515
+     * defines no `zip` header for signed tokens, and other JWT libraries, such as Nimbus behind Spring's
+     * {@code NimbusJwtDecoder}, reject compressed tokens as malformed.
+     *
+     * @param compressionThreshold the size, in bytes, of the serialized claims above which tokens are compressed;
+     *                             negative to never compress (the default).
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+
+    /**
+     * Sets the maximum size of a decompressed token payload. Parsing a compressed token whose payload inflates beyond
+     * the limit fails, which protects against decompression bombs.
+     *
+     * @param maxDecompressedBytes the maximum size, in bytes, of a decompressed payload.
+     */
+    public void setMaxDecompressedBytes(long maxDecompressedBytes) {
+        if (maxDecompressedBytes < 1) throw new IllegalArgumentException("maxDecompressedBytes must be positive");
+        this.maxDecompressedBytes = maxDecompressedBytes;
+        this.jwtParser = null;
     }
 
 
@@ -65,6 +152,21 @@ public class JsonWebTokenServiceImpl implements JsonWebTokenService {
      * @throws IllegalArgumentException if the subject or role is null or empty.
      */
     public JwtUserDetails create(String subject, String role, UUID id, TokenType tokenType) {
+        return create(subject, role, id, tokenType, null);
+    }
+
+    /**
+     * Creates a JwtUserDetails object backed by the verified claims of a parsed token.
+     *
+     * @param subject the subject of the user. Must not be empty or null.
+     * @param role the role of the user. Must not be empty or null.
+     * @param id the unique identifier (ID) of the user. Must not be null.
+     * @param tokenType the type of the token. Must not be null.
+     * @param claims the verified claims of the token, or null if the user was not parsed from a token.
+     * @return the JwtUserDetails object representing the created user.
+     * @throws IllegalArgumentException if the subject or role is null or empty.
+     */
+    static JwtUserDetails create(String subject, String role, UUID id, TokenType tokenType, Claims claims) {
         if(subject == null || role == null){
             throw new IllegalArgumentException(SUBJECT_ROLE_ERROR);
         }
@@ -75,7 +177,8 @@ public class JsonWebTokenServiceImpl implements JsonWebTokenService {
                 subject,
                 role,
                 id,
-                tokenType
+                tokenType,
+                claims
         );
     }
 
@@ -86,11 +189,25 @@ public class JsonWebTokenServiceImpl implements JsonWebTokenService {
      * @return a string representing the generated access token.
      */
     public String generateAccessToken(JwtUserDetails userDetails) {
+        return this.generateAccessToken(userDetails, Collections.emptyMap());
+    }
+
+
+    /**
+     * Generates an access token for the given user details carrying additional custom claims.
+     *
+     * @param userDetails the JwtUserDetails object representing the user details.
+     * @param claims the custom claims to add to the token. Must not contain reserved claims.
+     * @return a string representing the generated access token.
+     * @throws IllegalArgumentException if a custom claim overrides a reserved claim.
+     */
+    public String generateAccessToken(JwtUserDetails userDetails, Map<String, ?> claims) {
         return this.generateToken(
                 userDetails.getUsername(),
                 userDetails.getRole(),
                 TokenType.ACCESS_TOKEN,
-                userDetails.getId()
+                userDetails.getId(),
+                claims
         );
     }
 
@@ -102,11 +219,25 @@ public class JsonWebTokenServiceImpl implements JsonWebTokenService {
      * @return a string representing the generated refresh token.
      */
     public String generateRefreshToken(JwtUserDetails userDetails) {
+        return this.generateRefreshToken(userDetails, Collections.emptyMap());
+    }
+
+
+    /**
+     * Generates a refresh token for the given user details carrying additional custom claims.
+     *
+     * @param userDetails the UserDetails object representing the user. Must not be null.
+     * @param claims the custom claims to add to the token. Must not contain reserved claims.
+     * @return a string representing the generated refresh token.
+     * @throws IllegalArgumentException if a custom claim overrides a reserved claim.
+     */
+    public String generateRefreshToken(JwtUserDetails userDetails, Map<String, ?> claims) {
         return this.generateToken(
                 userDetails.getUsername(),
                 userDetails.getRole(),
                 TokenType.REFRESH_TOKEN,
-                userDetails.getId()
+                userDetails.getId(),
+                claims
         );
     }
 
@@ -121,7 +252,8 @@ public class JsonWebTokenServiceImpl implements JsonWebTokenService {
                 serviceName,
                 ROLE_SERVICE,
                 TokenType.ACCESS_TOKEN,
-                UUID.randomUUID()
+                idGenerator.generate(),
+                Collections.emptyMap()
         );
     }
 
@@ -134,9 +266,7 @@ public class JsonWebTokenServiceImpl implements JsonWebTokenService {
      * @throws JwtSecurityException if the token type is not a refresh token.
      */
     public JwtUserDetails parseRefreshToken(String token) {
-        JwtUserDetails jwtUser = this.parseToken(token);
-        if (jwtUser.getType() != TokenType.REFRESH_TOKEN) throw new JwtSecurityException(TOKEN_MATCHING_ERROR);
-        return jwtUser;
+        return this.verify(token, TokenType.REFRESH_TOKEN);
     }
 
 
@@ -148,25 +278,68 @@ public class JsonWebTokenServiceImpl implements JsonWebTokenService {
      * @throws JwtSecurityException if the token type is not an access token.
      */
     public JwtUserDetails parseAccessToken(String token) {
-        JwtUserDetails jwtUser = this.parseToken(token);
-        if (jwtUser.getType() != TokenType.ACCESS_TOKEN) throw new JwtSecurityException(TOKEN_MATCHING_ERROR);
+        return this.verify(token, TokenType.ACCESS_TOKEN);
+    }
+
+
+    /**
+     * Parses the given token of any token type and returns the JwtUserDetails object.
+     *
+     * @param token the token to parse. Must not be null or empty.
+     * @return the JwtUserDetails object representing the parsed token.
+     */
+    public JwtUserDetails parseToken(String token) {
+        return this.verify(token, null);
+    }
+
+
+    /**
+     * Parses the given token, checks its type and records the final outcome in the audit log.
+     *
+     * @param token the token to parse. Must not be null or empty.
+     * @param expectedType the required token type, or null to accept any type.
+     * @return the JwtUserDetails object representing the parsed token.
+     * @throws JwtSecurityException if the token is not of the expected type.
+     */
+    private JwtUserDetails verify(String token, TokenType expectedType) {
+        JwtUserDetails jwtUser;
+        try {
+            jwtUser = this.readToken(token);
+        } catch (JsonWebTokenExpiredException e) {
+            audit(VerificationOutcome.EXPIRED, e.getClaims());
+            throw e;
+        } catch (RuntimeException e) {
+            audit(VerificationOutcome.of(e), Collections.emptyMap());
+            throw e;
+        }
+        if (expectedType != null && jwtUser.getType() != expectedType) {
+            audit(VerificationOutcome.WRONG_TYPE, jwtUser.getClaims());
+            throw new JwtSecurityException(TOKEN_MATCHING_ERROR);
+        }
+        audit(VerificationOutcome.VALID, jwtUser.getClaims());
         return jwtUser;
     }
 
 
     /**
-     * Parses the given token and returns the JwtUserDetails object.
+     * Parses and validates the given token of any token type and builds the JwtUserDetails object.
      *
      * @param token the token to parse. Must not be null or empty.
      * @return the JwtUserDetails object representing the parsed token.
      */
-    private JwtUserDetails parseToken(String token) {
+    private JwtUserDetails readToken(String token) {
+        JwtTimings timings = JwtTimings.current();
+        long start = timings != null ? System.nanoTime() : 0L;
         Claims claims = parseJwtAndValidate(token);
+        if (timings != null) start = timings.record(JwtTimings.Phase.VERIFY, start);
+
         String subject = claims.getSubject();
         String role = (String) claims.get(ROLE_CLAIM);
         UUID id = UUID.fromString((String) claims.get(ID_CLAIM));
         TokenType tokenType = TokenType.valueOf(claims.get(TOKEN_TYPE_CLAIM, String.class));
-        return create(subject, role, id, tokenType);
+        JwtUserDetails userDetails = create(subject, role, id, tokenType, claims);
+        if (timings != null) timings.record(JwtTimings.Phase.CLAIMS, start);
+        return userDetails;
     }
 
     /**
@@ -187,17 +360,50 @@ public class JsonWebTokenServiceImpl implements JsonWebTokenService {
      * @param role the role claim of the JWT. Must not be empty or null.
      * @param type the token type of the JWT. Must not be null.
      * @param uuid the UUID claim of the JWT. Must not be null.
+     * @param claims the custom claims of the JWT. Must not contain reserved claims.
      * @return a JWT string.
+     * @throws IllegalArgumentException if a custom claim overrides a reserved claim.
      */
-    private String generateToken(String subject, String role, TokenType type, UUID uuid) {
-        return Jwts.builder()
+    private String generateToken(String subject, String role, TokenType type, UUID uuid, Map<String, ?> claims) {
+        for (String name : claims.keySet()) {
+            if (RESERVED_CLAIMS.contains(name) || (issuer != null && Claims.ISSUER.equals(name))) {
+                throw new IllegalArgumentException(RESERVED_CLAIM_ERROR + name);
+            }
+        }
+        String tokenId = idGenerator.generate().toString();
+        Claims payload = Jwts.claims()
+                .add(claims)
+                .id(tokenId)
                 .subject(subject)
-                .claim(ROLE_CLAIM, role)
-                .claim(ID_CLAIM, uuid.toString())
-                .claim(TOKEN_TYPE_CLAIM, type.toString())
+                .add(ROLE_CLAIM, role)
+                .add(ID_CLAIM, uuid.toString())
+                .add(TOKEN_TYPE_CLAIM, type.toString())
                 .expiration(this.getDateExpiration(type))
+                .issuer(issuer)
+                .build();
+        JwtBuilder builder = Jwts.builder().claims(payload);
+        if (issuer != null) builder.header().keyId(issuer);
+        int threshold = compressionThreshold;
+        if (threshold >= 0 && serializedSize(payload) > threshold) builder.compressWith(Jwts.ZIP.DEF);
+        String token = builder
                 .signWith(this.getPrivateKey())
                 .compact();
+        AuditLog audit = auditLog;
+        if (audit != null) audit.issued(subject, uuid.toString(), type.toString(), tokenId, issuer);
+        return token;
+    }
+
+
+    /**
+     * Returns the size of the given claims serialized as the token payload, before encoding.
+     *
+     * @param payload the claims of the token.
+     * @return the size of the serialized claims in bytes.
+     */
+    private static int serializedSize(Claims payload) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        PAYLOAD_SERIALIZER.serialize(payload, bytes);
+        return bytes.size();
     }
 
 
@@ -208,33 +414,78 @@ public class JsonWebTokenServiceImpl implements JsonWebTokenService {
      * @return the Claims object representing the payload of the JWT
      * @throws JsonWebTokenExpiredException     if the JWT has expired
      * @throws UnsupportedJsonWebTokenException if the JWT is unsupported
+     * @throws CompressionException             if the payload inflates beyond the decompression limit
      */
     private Claims parseJwtAndValidate(String jwt) {
         try {
-            JwtParser jwtParser = Jwts
-                    .parser()
-                    .verifyWith(getPrivateKey())
-                    .build();
-            return jwtParser.parseSignedClaims(jwt).getPayload();
+            return getJwtParser().parseSignedClaims(jwt).getPayload();
         } catch (ExpiredJwtException e) {
-            throw new JsonWebTokenExpiredException(JWT_EXPIRED_MESSAGE, e.getMessage());
+            throw new JsonWebTokenExpiredException(JWT_EXPIRED_MESSAGE, e.getMessage(), e.getClaims());
         } catch (UnsupportedJwtException e) {
             throw new UnsupportedJsonWebTokenException(UNSUPPORTED_JWT, e.getMessage());
+        } catch (io.jsonwebtoken.io.IOException e) {
+            throw e.getCause() instanceof CompressionException compression ? compression : e;
+        }
+    }
+
+
+    /**
+     * Records the outcome of a verification in the audit log, if one is set.
+     *
+     * @param outcome the outcome of the verification.
+     * @param claims the claims of the token, empty if they are not known.
+     */
+    private void audit(VerificationOutcome outcome, Map<String, Object> claims) {
+        AuditLog audit = auditLog;
+        if (audit == null) return;
+        audit.verified(outcome,
+                claims.get(Claims.SUBJECT) instanceof String subject ? subject : null,
+                claims.get(ID_CLAIM) instanceof String id ? id : null,
+                claims.get(TOKEN_TYPE_CLAIM) instanceof String type ? type : null,
+                claims.get(Claims.ID) instanceof String jti ? jti : null,
+                claims.get(Claims.ISSUER) instanceof String kid ? kid : issuer);
+    }
+
+
+    /**
+     * Retrieves the parser verifying JWTs. The parser is immutable and built once.
+     *
+     * @return the JwtParser verifying the signature and, if set, the issuer of JWTs, and bounding decompression.
+     */
+    private JwtParser getJwtParser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            long maxBytes = maxDecompressedBytes;
+            JwtParserBuilder builder = Jwts
+                    .parser()
+                    .verifyWith(getPrivateKey())
+                    .zip()
+                    .add(new BoundedCompressionAlgorithm(Jwts.ZIP.DEF, maxBytes))
+                    .add(new BoundedCompressionAlgorithm(Jwts.ZIP.GZIP, maxBytes))
+                    .and();
+            if (issuer != null) builder.requireIssuer(issuer);
+            parser = builder.build();
+            jwtParser = parser;
         }
+        return parser;
     }
 
 
     /**
-     * Retrieves the private key for creating JWTs.
+     * Retrieves the private key for creating JWTs. The key is decoded once.
      *
      * @return the SecretKey object representing the private key.
      * @throws UnexpectedKeyGenerationException if there is an unexpected error during key generation.
      * @throws KeyDecodingException           if there is an error decoding the secret key.
      */
     private SecretKey getPrivateKey() throws UnexpectedKeyGenerationException, KeyDecodingException {
+        SecretKey key = privateKey;
+        if (key != null) return key;
         try {
             byte[] byteKey = Base64.getDecoder().decode(secretKey.getBytes());
-            return Keys.hmacShaKeyFor(byteKey);
+            key = Keys.hmacShaKeyFor(byteKey);
+            privateKey = key;
+            return key;
         } catch (IllegalArgumentException e) {
             throw new KeyDecodingException(KEY_DECODING_ERROR + e.getMessage());
         } catch (Exception e) {
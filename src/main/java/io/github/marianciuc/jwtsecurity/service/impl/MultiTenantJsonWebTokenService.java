@@ -0,0 +1,332 @@
+package io.github.marianciuc.jwtsecurity.service.impl;
+
+import io.github.marianciuc.jwtsecurity.audit.AuditLog;
+import io.github.marianciuc.jwtsecurity.entity.TenantSettings;
+import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.enums.VerificationOutcome;
+import io.github.marianciuc.jwtsecurity.exceptions.JwtSecurityException;
+import io.github.marianciuc.jwtsecurity.service.JsonWebTokenService;
+import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
+import io.github.marianciuc.jwtsecurity.service.TenantRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The `MultiTenantJsonWebTokenService` class generates and parses JSON Web Tokens (JWTs) for many tenants, each with
+ * its own secret key and expirations. The tenant of a token is resolved from its `kid` header, or from its `iss`
+ * claim when the header is missing, and the token is verified with the tenant's own service, which requires the
+ * `iss` claim to match the tenant. Compressed tokens must carry the `kid` header, since their payload is not
+ * decompressed before the token is verified; tokens issued by the tenant services always carry it.
+ * <p>
+ * Tenant services, with their decoded keys and parsers, are looked up in the {@link TenantRegistry} and held in a
+ * bounded cache. The registry is consulted outside of the cache, so a slow registry never delays lookups of other
+ * tenants; concurrent first lookups of the same tenant may each consult it, and the first result is kept. Tenants
+ * idle for longer than the idle timeout are evicted as tenants are used and looked up; if the cache is still full,
+ * the least recently used tenants are evicted. Since the tenant is read from the token before it is verified, tenants the
+ * registry does not know are remembered for a short while in a bounded negative cache, so repeated tokens naming them
+ * don't reach the registry; clients that keep sending such tokens are throttled by the filter's failure limiter.
+ *
+ * @author Vladimir Marianciuc
+ * @version 1.0
+ */
+public class MultiTenantJsonWebTokenService implements JsonWebTokenService {
+
+    private static final String UNKNOWN_TENANT = "The provided token belongs to an unknown tenant: ";
+    private static final String MISSING_TENANT = "The provided token does not name its tenant";
+    private static final String TENANT_REQUIRED = "The tenant of the token can't be determined. Use forTenant to generate tokens for a tenant.";
+    private static final long ACCESS_RESOLUTION_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final long UNKNOWN_TENANT_TTL_NANOS = Duration.ofSeconds(30).toNanos();
+
+    private final TenantRegistry tenantRegistry;
+    private final int maxTenants;
+    private final long idleTimeoutNanos;
+    private final Map<String, CachedTenant> tenants = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, CachedTenant> accessOrder = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> unknownTenants;
+    private volatile String defaultTenant;
+    private volatile AuditLog auditLog;
+
+
+    /**
+     * MultiTenantJsonWebTokenService class constructor.
+     *
+     * @param tenantRegistry the registry to look up tenants in.
+     * @param maxTenants     the maximum number of cached tenants.
+     * @param idleTimeout    the time after which an unused tenant may be evicted.
+     */
+    public MultiTenantJsonWebTokenService(TenantRegistry tenantRegistry, int maxTenants, Duration idleTimeout) {
+        if (maxTenants < 1) throw new IllegalArgumentException("maxTenants must be positive");
+        this.tenantRegistry = tenantRegistry;
+        this.maxTenants = maxTenants;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.unknownTenants = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxTenants;
+            }
+        };
+    }
+
+
+    /**
+     * Sets the audit log recording issued tokens and verification outcomes of all tenants. Tokens rejected because
+     * their tenant can't be resolved are recorded too. Only tenants looked up after the call use the audit log.
+     *
+     * @param auditLog the audit log, or null to disable auditing.
+     */
+    public void setAuditLog(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+
+    /**
+     * Sets the tenant service tokens are issued in by {@link #generateServiceToken()}.
+     *
+     * @param defaultTenant the identifier of the tenant, or null to require {@link #forTenant(String)}.
+     */
+    public void setDefaultTenant(String defaultTenant) {
+        this.defaultTenant = defaultTenant;
+    }
+
+
+    /**
+     * Returns the token service of the given tenant, looking the tenant up if it is not cached.
+     *
+     * @param tenantId the identifier of the tenant.
+     * @return the token service issuing and verifying tokens of the tenant.
+     * @throws JwtSecurityException if the tenant is unknown.
+     */
+    public JsonWebTokenService forTenant(String tenantId) {
+        long now = System.nanoTime();
+        CachedTenant tenant = tenants.get(tenantId);
+        if (tenant == null) return cacheTenant(tenantId, now).service;
+        if (tenant.touch(now)) {
+            synchronized (accessOrder) {
+                accessOrder.get(tenantId);
+                evict(now);
+            }
+        }
+        return tenant.service;
+    }
+
+
+    /**
+     * Resolves the tenant of the given token without verifying it.
+     *
+     * @param token the token to resolve the tenant of. Must not be null.
+     * @return the identifier of the tenant.
+     * @throws JwtSecurityException if the token does not name its tenant, or is compressed and lacks the `kid` header.
+     */
+    public String resolveTenant(String token) {
+        Map<String, ?> header = TokenSegments.readHeader(token);
+        Object tenantId = header.get(JwsHeader.KEY_ID);
+        if (tenantId == null && !header.containsKey(JwsHeader.COMPRESSION_ALGORITHM)) {
+            tenantId = TokenSegments.readPayload(token).get(Claims.ISSUER);
+        }
+        if (!(tenantId instanceof String id) || id.isEmpty()) throw new JwtSecurityException(MISSING_TENANT);
+        return id;
+    }
+
+
+    /**
+     * Returns the identifiers of the cached tenants.
+     *
+     * @return a snapshot of the identifiers of the cached tenants.
+     */
+    public Set<String> getCachedTenants() {
+        return Set.copyOf(tenants.keySet());
+    }
+
+
+    public JwtUserDetails create(String subject, String role, UUID id, TokenType tokenType) {
+        return JsonWebTokenServiceImpl.create(subject, role, id, tokenType, null);
+    }
+
+
+    /**
+     * Generates an access token in the tenant the given user details were parsed from.
+     *
+     * @param userDetails the JwtUserDetails object parsed from a token of a tenant.
+     * @return a string representing the generated access token.
+     * @throws JwtSecurityException if the user details were not parsed from a token of a tenant.
+     */
+    public String generateAccessToken(JwtUserDetails userDetails) {
+        return forTenant(tenantOf(userDetails)).generateAccessToken(userDetails);
+    }
+
+
+    public String generateAccessToken(JwtUserDetails userDetails, Map<String, ?> claims) {
+        return forTenant(tenantOf(userDetails)).generateAccessToken(userDetails, claims);
+    }
+
+
+    /**
+     * Generates a refresh token in the tenant the given user details were parsed from.
+     *
+     * @param userDetails the JwtUserDetails object parsed from a token of a tenant.
+     * @return a string representing the generated refresh token.
+     * @throws JwtSecurityException if the user details were not parsed from a token of a tenant.
+     */
+    public String generateRefreshToken(JwtUserDetails userDetails) {
+        return forTenant(tenantOf(userDetails)).generateRefreshToken(userDetails);
+    }
+
+
+    public String generateRefreshToken(JwtUserDetails userDetails, Map<String, ?> claims) {
+        return forTenant(tenantOf(userDetails)).generateRefreshToken(userDetails, claims);
+    }
+
+
+    /**
+     * Generates a service token in the default tenant.
+     *
+     * @return a string representing the generated service token.
+     * @throws JwtSecurityException if no default tenant is set; use {@link #forTenant(String)} to generate service
+     * tokens in a given tenant.
+     */
+    public String generateServiceToken() {
+        String tenantId = defaultTenant;
+        if (tenantId == null) throw new JwtSecurityException(TENANT_REQUIRED);
+        return forTenant(tenantId).generateServiceToken();
+    }
+
+
+    public JwtUserDetails parseRefreshToken(String token) {
+        return serviceOf(token).parseRefreshToken(token);
+    }
+
+
+    public JwtUserDetails parseAccessToken(String token) {
+        return serviceOf(token).parseAccessToken(token);
+    }
+
+
+    public JwtUserDetails parseToken(String token) {
+        return serviceOf(token).parseToken(token);
+    }
+
+
+    /**
+     * Returns the service of the tenant the given token names, recording tokens whose tenant can't be resolved in
+     * the audit log.
+     */
+    private JsonWebTokenService serviceOf(String token) {
+        String tenantId = null;
+        try {
+            tenantId = resolveTenant(token);
+            return forTenant(tenantId);
+        } catch (RuntimeException e) {
+            AuditLog audit = auditLog;
+            if (audit != null) {
+                VerificationOutcome outcome = tenantId == null ? VerificationOutcome.MALFORMED
+                        : e instanceof JwtSecurityException ? VerificationOutcome.UNKNOWN_TENANT : VerificationOutcome.INVALID;
+                audit.verified(outcome, null, null, null, null, tenantId);
+            }
+            throw e;
+        }
+    }
+
+
+    private String tenantOf(JwtUserDetails userDetails) {
+        String tenantId = userDetails.getClaim(Claims.ISSUER, String.class);
+        if (tenantId == null) throw new JwtSecurityException(TENANT_REQUIRED);
+        return tenantId;
+    }
+
+
+    /**
+     * Looks a tenant up in the registry unless it was recently found to be unknown, caches it and evicts tenants over
+     * the bound.
+     *
+     * @param tenantId the identifier of the tenant.
+     * @param now the current value of {@link System#nanoTime()}.
+     * @return the cached tenant.
+     * @throws JwtSecurityException if the tenant is unknown.
+     */
+    private CachedTenant cacheTenant(String tenantId, long now) {
+        synchronized (unknownTenants) {
+            Long expiry = unknownTenants.get(tenantId);
+            if (expiry != null) {
+                if (now - expiry < 0) throw new JwtSecurityException(UNKNOWN_TENANT + tenantId);
+                unknownTenants.remove(tenantId);
+            }
+        }
+        CachedTenant loaded = loadTenant(tenantId);
+        CachedTenant tenant = tenants.putIfAbsent(tenantId, loaded);
+        if (tenant == null) tenant = loaded;
+        synchronized (accessOrder) {
+            if (tenants.get(tenantId) == tenant) accessOrder.put(tenantId, tenant);
+            evict(now);
+        }
+        return tenant;
+    }
+
+
+    private CachedTenant loadTenant(String tenantId) {
+        TenantSettings settings = tenantRegistry.findTenant(tenantId);
+        if (settings == null) {
+            synchronized (unknownTenants) {
+                unknownTenants.put(tenantId, System.nanoTime() + UNKNOWN_TENANT_TTL_NANOS);
+            }
+            throw new JwtSecurityException(UNKNOWN_TENANT + tenantId);
+        }
+        JsonWebTokenServiceImpl service = new JsonWebTokenServiceImpl(
+                settings.getServiceName(),
+                settings.getSecretKey(),
+                settings.getAccessExpiration(),
+                settings.getRefreshExpiration(),
+                tenantId
+        );
+        service.setAuditLog(auditLog);
+        return new CachedTenant(service);
+    }
+
+
+    /**
+     * Evicts idle tenants and, if the cache is still over its bound, the least recently used ones. Tenants are kept in
+     * access order, so only the evicted entries are visited; it runs whenever a tenant is looked up or its access
+     * time advances, at most once a second per tenant. Must be called holding the lock of the access order.
+     *
+     * @param now the current value of {@link System#nanoTime()}.
+     */
+    private void evict(long now) {
+        Iterator<Map.Entry<String, CachedTenant>> eldest = accessOrder.entrySet().iterator();
+        while (eldest.hasNext()) {
+            Map.Entry<String, CachedTenant> entry = eldest.next();
+            boolean idle = now - entry.getValue().lastAccess > idleTimeoutNanos;
+            if (!idle && accessOrder.size() <= maxTenants) return;
+            eldest.remove();
+            tenants.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+
+    /**
+     * A cached tenant service with the time it was last used. The access time is only written when it changes by
+     * more than a second, so that hot tenants don't turn every lookup into a shared write or a move in the access
+     * order.
+     */
+    private static class CachedTenant {
+        private final JsonWebTokenService service;
+        private volatile long lastAccess;
+
+        CachedTenant(JsonWebTokenService service) {
+            this.service = service;
+            this.lastAccess = System.nanoTime();
+        }
+
+        boolean touch(long now) {
+            if (now - lastAccess <= ACCESS_RESOLUTION_NANOS) return false;
+            lastAccess = now;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.marianciuc.jwtsecurity.service.impl;
+
+import io.github.marianciuc.jwtsecurity.service.IdGenerator;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The `TimeOrderedIdGenerator` class generates version 7 UUIDs: a 48-bit millisecond timestamp followed by a 12-bit
+ * counter and 62 random bits. Ids sort by creation time, which keeps indexes keyed by them append-friendly.
+ * <p>
+ * Unlike {@link UUID#randomUUID()}, which draws from one shared {@link SecureRandom}, every platform thread has its
+ * own random generator and counter, so threads generating ids never wait for each other. Ids generated by the same
+ * thread are strictly increasing, even within a millisecond; ids generated by different threads are ordered by
+ * millisecond. Virtual threads don't get a generator of their own, to avoid seeding one for every short-lived thread:
+ * they advance one of a small set of shared clocks, chosen by thread id, with a compare-and-set, and draw the random
+ * bits from {@link ThreadLocalRandom}, so they never block or pin their carrier thread.
+ *
+ * @author Vladimir Marianciuc
+ * @version 1.0
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final int COUNTER_MAX = (1 << COUNTER_BITS) - 1;
+
+    private static final ThreadLocal<State> PLATFORM_STATES = ThreadLocal.withInitial(State::new);
+    private static final AtomicLong[] VIRTUAL_CLOCKS = new AtomicLong[Integer.highestOneBit(
+            Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1];
+
+    static {
+        for (int i = 0; i < VIRTUAL_CLOCKS.length; i++) VIRTUAL_CLOCKS[i] = new AtomicLong();
+    }
+
+    /**
+     * Generates a version 7 UUID.
+     *
+     * @return a time-ordered UUID.
+     */
+    public UUID generate() {
+        Thread thread = Thread.currentThread();
+        if (!thread.isVirtual()) return PLATFORM_STATES.get().next();
+        AtomicLong clock = VIRTUAL_CLOCKS[(int) (thread.threadId() & (VIRTUAL_CLOCKS.length - 1))];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.currentTimeMillis();
+        long last;
+        long next;
+        do {
+            last = clock.get();
+            next = now > last >>> COUNTER_BITS
+                    ? now << COUNTER_BITS | random.nextInt(1 << (COUNTER_BITS - 1))
+                    : last + 1;
+        } while (!clock.compareAndSet(last, next));
+        return uuid(next, random.nextLong());
+    }
+
+    /**
+     * Lays out a version 7 UUID from a millisecond timestamp shifted left by the counter bits, holding the counter in
+     * its low bits, and 62 random bits.
+     */
+    private static UUID uuid(long timeAndCounter, long random) {
+        long mostSignificant = (timeAndCounter >>> COUNTER_BITS) << 16 | 0x7000L | (timeAndCounter & COUNTER_MAX);
+        long leastSignificant = (random & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    /**
+     * The generator state of a thread: its random generator and the timestamp and counter of its last id.
+     */
+    private static class State {
+        private final SecureRandom random = newRandom();
+        private long lastMillis;
+        private int counter;
+
+        UUID next() {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                counter = random.nextInt(1 << (COUNTER_BITS - 1));
+            } else if (++counter > COUNTER_MAX) {
+                lastMillis++;
+                counter = random.nextInt(1 << (COUNTER_BITS - 1));
+            }
+            return uuid(lastMillis << COUNTER_BITS | counter, random.nextLong());
+        }
+
+        private static SecureRandom newRandom() {
+            try {
+                return SecureRandom.getInstance("DRBG");
+            } catch (NoSuchAlgorithmException e) {
+                return new SecureRandom();
+            }
+        }
+    }
+}
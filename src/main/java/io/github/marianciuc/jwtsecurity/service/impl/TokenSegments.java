@@ -0,0 +1,70 @@
+package io.github.marianciuc.jwtsecurity.service.impl;
+
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Deserializer;
+import io.jsonwebtoken.jackson.io.JacksonDeserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * The `TokenSegments` class decodes the header or the payload of a compact JWT without verifying its signature.
+ * The decoded values must only be used to decide how to verify the token, never to trust it.
+ *
+ * @author Vladimir Marianciuc
+ * @version 1.0
+ */
+public final class TokenSegments {
+
+    private static final String MALFORMED_TOKEN = "The provided JWT is not a compact JWT: ";
+    private static final Deserializer<Map<String, ?>> DESERIALIZER = new JacksonDeserializer<>();
+
+    private TokenSegments() {
+    }
+
+    /**
+     * Decodes the header of the given token.
+     *
+     * @param token the compact JWT. Must not be null.
+     * @return the unverified header values.
+     * @throws MalformedJwtException if the header can't be decoded.
+     */
+    public static Map<String, ?> readHeader(String token) {
+        int end = token.indexOf('.');
+        if (end < 0) throw new MalformedJwtException(MALFORMED_TOKEN + "missing header");
+        return decode(token.substring(0, end));
+    }
+
+    /**
+     * Decodes the payload of the given token.
+     *
+     * @param token the compact JWT. Must not be null.
+     * @return the unverified payload claims.
+     * @throws MalformedJwtException if the payload can't be decoded.
+     */
+    public static Map<String, ?> readPayload(String token) {
+        int start = token.indexOf('.');
+        int end = token.indexOf('.', start + 1);
+        if (start < 0 || end < 0) throw new MalformedJwtException(MALFORMED_TOKEN + "missing payload");
+        return decode(token.substring(start + 1, end));
+    }
+
+    private static Map<String, ?> decode(String segment) {
+        try {
+            byte[] json = Decoders.BASE64URL.decode(segment);
+            try (Reader reader = new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8)) {
+                Map<String, ?> values = DESERIALIZER.deserialize(reader);
+                if (values == null) throw new MalformedJwtException(MALFORMED_TOKEN + "empty segment");
+                return values;
+            }
+        } catch (MalformedJwtException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MalformedJwtException(MALFORMED_TOKEN + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package io.github.marianciuc.jwtsecurity.sidecar;
+
+import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.enums.VerificationOutcome;
+import io.github.marianciuc.jwtsecurity.service.JsonWebTokenService;
+import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
+import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The `VerificationSidecar` class is a local daemon verifying tokens for co-located processes written in other
+ * languages, over a Unix domain socket. Tokens are verified with {@link JsonWebTokenService#parseToken(String)}, so
+ * every client gets exactly the verification of the JVM services. Access to the daemon is controlled by the
+ * permissions of the socket file, which is made readable and writable by its owner only once it is bound; place it in
+ * a directory other users can't enter to also close the window between binding and restricting it.
+ * <p>
+ * The protocol is binary, big-endian and length-prefixed. A request frame is
+ * {@code u32 length, u32 requestId, u8 opcode, payload}, where the length counts the bytes following it. The payload
+ * of {@link #VERIFY} is the ASCII token; the payload of {@link #VERIFY_BATCH} is {@code u16 count} followed by
+ * {@code count} times {@code u32 tokenLength, token}. The response frame is {@code u32 length, u32 requestId,
+ * u8 opcode} followed by one result, or by {@code u16 count} and {@code count} results for a batch. A result is
+ * {@code u8 status}, one of the {@code STATUS_} codes; for {@link #STATUS_VALID} it is followed by
+ * {@code u16 length, subject, u16 length, role, u64 idMostSignificantBits, u64 idLeastSignificantBits,
+ * u8 tokenType}, one of the {@code TYPE_} codes. Strings are UTF-8. The codes are part of the protocol and never
+ * change; they do not follow the order of the {@link VerificationOutcome} and {@link TokenType} constants.
+ * <p>
+ * Clients may pipeline requests: frames are answered in the order they are received. A connection sending a frame
+ * that breaks the protocol or exceeds the maximum frame size is closed.
+ * <p>
+ * Connections are spread over a few event loops, each with its own selector, which read, verify and write without
+ * handing work to other threads. Every connection reads and writes through direct buffers taken from its event
+ * loop's pool and returned when it closes.
+ * <p>
+ * Usage: {@code java -cp <classpath> io.github.marianciuc.jwtsecurity.sidecar.VerificationSidecar
+ * --socket <path> --key <base64-secret> [--issuer <issuer>] [--threads <threads>] [--max-frame-bytes <bytes>]}
+ *
+ * @author Vladimir Marianciuc
+ * @version 1.0
+ */
+public class VerificationSidecar implements AutoCloseable {
+
+    /**
+     * Verifies one token.
+     */
+    public static final byte VERIFY = 1;
+    /**
+     * Verifies up to {@link #MAX_BATCH} tokens.
+     */
+    public static final byte VERIFY_BATCH = 2;
+    public static final int MAX_BATCH = 1024;
+
+    public static final byte STATUS_VALID = 0;
+    public static final byte STATUS_EXPIRED = 1;
+    public static final byte STATUS_INVALID_SIGNATURE = 2;
+    public static final byte STATUS_MALFORMED = 3;
+    public static final byte STATUS_UNSUPPORTED = 4;
+    public static final byte STATUS_WRONG_TYPE = 5;
+    public static final byte STATUS_INVALID = 6;
+    public static final byte STATUS_UNKNOWN_TENANT = 7;
+    public static final byte STATUS_THROTTLED = 8;
+
+    public static final byte TYPE_ACCESS_TOKEN = 0;
+    public static final byte TYPE_REFRESH_TOKEN = 1;
+
+    public static final int DEFAULT_MAX_FRAME_BYTES = 64 * 1024;
+
+    private static final int FRAME_HEADER_BYTES = Integer.BYTES + Byte.BYTES;
+    private static final int RESULT_BYTES = Byte.BYTES + 2 * Short.BYTES + 2 * Long.BYTES + Byte.BYTES;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    private static final String SERVICE_NAME = "verification-sidecar";
+    private static final String USAGE = "Usage: VerificationSidecar --socket <path> --key <base64-secret> "
+            + "[--issuer <issuer>] [--threads <threads>] [--max-frame-bytes <bytes>]";
+
+    private final JsonWebTokenService jsonWebTokenService;
+    private final Path socketPath;
+    private final int maxFrameBytes;
+    private final ServerSocketChannel server;
+    private final EventLoop[] loops;
+    private final Thread acceptor;
+    private volatile boolean running = true;
+
+    /**
+     * VerificationSidecar class constructor. Binds the socket and starts serving.
+     *
+     * @param jsonWebTokenService the service verifying tokens.
+     * @param socketPath          the path of the socket file; a stale file left by a previous daemon is replaced.
+     * @param threads             the number of event loops.
+     * @param maxFrameBytes       the maximum length of a request frame.
+     * @throws IOException if the socket can't be bound.
+     */
+    public VerificationSidecar(JsonWebTokenService jsonWebTokenService, Path socketPath, int threads, int maxFrameBytes) throws IOException {
+        if (threads < 1 || maxFrameBytes < FRAME_HEADER_BYTES || maxFrameBytes > 1 << 24) {
+            throw new IllegalArgumentException("threads must be positive and maxFrameBytes between 5 and 16 MiB");
+        }
+        this.jsonWebTokenService = jsonWebTokenService;
+        this.socketPath = socketPath;
+        this.maxFrameBytes = maxFrameBytes;
+
+        Files.deleteIfExists(socketPath);
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        this.server.bind(UnixDomainSocketAddress.of(socketPath));
+        if (socketPath.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.setPosixFilePermissions(socketPath, PosixFilePermissions.fromString("rw-------"));
+        }
+        this.loops = new EventLoop[threads];
+        for (int i = 0; i < threads; i++) loops[i] = new EventLoop(i);
+        this.acceptor = new Thread(this::acceptLoop, "jwt-sidecar-acceptor");
+        this.acceptor.start();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path socket = null;
+        String key = null;
+        String issuer = null;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int maxFrameBytes = DEFAULT_MAX_FRAME_BYTES;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--socket" -> socket = Path.of(args[++i]);
+                    case "--key" -> key = args[++i];
+                    case "--issuer" -> issuer = args[++i];
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    case "--max-frame-bytes" -> maxFrameBytes = Integer.parseInt(args[++i]);
+                    default -> throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            socket = null;
+        }
+        if (socket == null || key == null) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        VerificationSidecar sidecar = new VerificationSidecar(
+                new JsonWebTokenServiceImpl(SERVICE_NAME, key, 0L, 0L, issuer), socket, threads, maxFrameBytes);
+        Runtime.getRuntime().addShutdownHook(new Thread(sidecar::close));
+        sidecar.acceptor.join();
+    }
+
+    /**
+     * Stops accepting connections, closes the open ones and removes the socket file.
+     */
+    @Override
+    public void close() {
+        if (!running) return;
+        running = false;
+        try {
+            server.close();
+            for (EventLoop loop : loops) loop.selector.wakeup();
+            acceptor.join();
+            for (EventLoop loop : loops) loop.thread.join();
+            Files.deleteIfExists(socketPath);
+        } catch (IOException e) {
+            // the daemon is shutting down; nothing is left to release
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = server.accept();
+                EventLoop loop = loops[next];
+                next = next + 1 == loops.length ? 0 : next + 1;
+                loop.register(channel);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (!running) return;
+            }
+        }
+    }
+
+    /**
+     * Returns the size the response to a request frame usually fits in: each result holds at most its token's bytes,
+     * since the subject and role are part of the token payload. Compressed tokens may carry a larger payload;
+     * {@link #verify} grows the output buffer for their results.
+     */
+    private static int responseBound(int frameLength, int tokens) {
+        return Integer.BYTES + FRAME_HEADER_BYTES + Short.BYTES + frameLength + RESULT_BYTES * tokens;
+    }
+
+    /**
+     * Verifies a token and writes the result to the connection. A subject or role longer than the 16-bit length
+     * prefix of the protocol can't be answered and is reported as {@link #STATUS_INVALID}.
+     */
+    private void verify(String token, Connection connection) {
+        JwtUserDetails userDetails;
+        try {
+            userDetails = jsonWebTokenService.parseToken(token);
+        } catch (RuntimeException e) {
+            connection.out.put(status(VerificationOutcome.of(e)));
+            return;
+        }
+        byte[] subject = utf8(userDetails.getUsername());
+        byte[] role = utf8(userDetails.getRole());
+        UUID id = userDetails.getId();
+        if (subject.length > MAX_STRING_BYTES || role.length > MAX_STRING_BYTES) {
+            connection.out.put(STATUS_INVALID);
+            return;
+        }
+        ByteBuffer out = connection.reserve(RESULT_BYTES + subject.length + role.length);
+        out.put(STATUS_VALID);
+        out.putShort((short) subject.length).put(subject);
+        out.putShort((short) role.length).put(role);
+        out.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        out.put(userDetails.getType() == TokenType.REFRESH_TOKEN ? TYPE_REFRESH_TOKEN : TYPE_ACCESS_TOKEN);
+    }
+
+    /**
+     * Returns the wire code of a verification outcome.
+     */
+    private static byte status(VerificationOutcome outcome) {
+        return switch (outcome) {
+            case VALID -> STATUS_VALID;
+            case EXPIRED -> STATUS_EXPIRED;
+            case INVALID_SIGNATURE -> STATUS_INVALID_SIGNATURE;
+            case MALFORMED -> STATUS_MALFORMED;
+            case UNSUPPORTED -> STATUS_UNSUPPORTED;
+            case WRONG_TYPE -> STATUS_WRONG_TYPE;
+            case INVALID -> STATUS_INVALID;
+            case UNKNOWN_TENANT -> STATUS_UNKNOWN_TENANT;
+            case THROTTLED -> STATUS_THROTTLED;
+        };
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A selector thread serving its share of the connections.
+     */
+    private class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final Queue<SocketChannel> registrations = new ConcurrentLinkedQueue<>();
+        private final Queue<Connection> pool = new ArrayDeque<>();
+        private final byte[] scratch = new byte[maxFrameBytes];
+
+        EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "jwt-sidecar-" + index);
+            this.thread.start();
+        }
+
+        void register(SocketChannel channel) {
+            registrations.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    for (SocketChannel channel = registrations.poll(); channel != null; channel = registrations.poll()) {
+                        accept(channel);
+                    }
+                    for (SelectionKey key : selector.selectedKeys()) {
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isReadable() && connection.channel.read(connection.in) < 0) {
+                                release(key, connection);
+                            } else if (!serve(connection)) {
+                                release(key, connection);
+                            } else {
+                                key.interestOps(connection.out.position() > 0 || connection.blocked
+                                        ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+                            }
+                        } catch (IOException e) {
+                            release(key, connection);
+                        }
+                    }
+                    selector.selectedKeys().clear();
+                }
+            } catch (IOException e) {
+                // the selector failed; the connections of this loop are closed below
+            } finally {
+                for (SelectionKey key : selector.keys()) release(key, (Connection) key.attachment());
+                for (SocketChannel channel = registrations.poll(); channel != null; channel = registrations.poll()) {
+                    closeQuietly(channel);
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    // nothing is left to release
+                }
+            }
+        }
+
+        private void accept(SocketChannel channel) {
+            try {
+                channel.configureBlocking(false);
+                Connection connection = pool.poll();
+                if (connection == null) connection = new Connection();
+                connection.channel = channel;
+                channel.register(selector, SelectionKey.OP_READ, connection);
+            } catch (IOException e) {
+                closeQuietly(channel);
+            }
+        }
+
+        /**
+         * Answers every complete frame received so far, as long as the output buffer can hold the answers, and
+         * writes the answers out.
+         *
+         * @return false if the client broke the protocol.
+         */
+        private boolean serve(Connection connection) throws IOException {
+            ByteBuffer in = connection.in;
+            connection.blocked = false;
+            in.flip();
+            try {
+                while (in.remaining() >= Integer.BYTES) {
+                    int length = in.getInt(in.position());
+                    if (length < FRAME_HEADER_BYTES || length > maxFrameBytes) return false;
+                    if (in.remaining() < Integer.BYTES + length) break;
+
+                    byte opcode = in.get(in.position() + Integer.BYTES * 2);
+                    int tokens = 1;
+                    if (opcode == VERIFY_BATCH) {
+                        if (length < FRAME_HEADER_BYTES + Short.BYTES) return false;
+                        tokens = Short.toUnsignedInt(in.getShort(in.position() + Integer.BYTES + FRAME_HEADER_BYTES));
+                        if (tokens > MAX_BATCH) return false;
+                    } else if (opcode != VERIFY) {
+                        return false;
+                    }
+                    int bound = responseBound(length, tokens);
+                    if (connection.out.remaining() < bound) {
+                        flush(connection);
+                        if (connection.out.remaining() < bound) {
+                            connection.blocked = true;
+                            break;
+                        }
+                    }
+                    if (!answer(in, connection)) return false;
+                }
+            } finally {
+                in.compact();
+            }
+            flush(connection);
+            return true;
+        }
+
+        /**
+         * Answers one complete frame.
+         *
+         * @return false if the frame is inconsistent.
+         */
+        private boolean answer(ByteBuffer in, Connection connection) {
+            int end = in.position() + Integer.BYTES + in.getInt();
+            int requestId = in.getInt();
+            byte opcode = in.get();
+            int start = connection.out.position();
+            connection.out.putInt(0).putInt(requestId).put(opcode);
+            if (opcode == VERIFY) {
+                verify(readToken(in, end - in.position()), connection);
+            } else {
+                int count = Short.toUnsignedInt(in.getShort());
+                connection.out.putShort((short) count);
+                for (int i = 0; i < count; i++) {
+                    if (end - in.position() < Integer.BYTES) return false;
+                    int tokenLength = in.getInt();
+                    if (tokenLength < 0 || tokenLength > end - in.position()) return false;
+                    verify(readToken(in, tokenLength), connection);
+                }
+            }
+            if (in.position() != end) return false;
+            connection.out.putInt(start, connection.out.position() - start - Integer.BYTES);
+            return true;
+        }
+
+        private String readToken(ByteBuffer in, int length) {
+            in.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.US_ASCII);
+        }
+
+        private void flush(Connection connection) throws IOException {
+            ByteBuffer out = connection.out;
+            if (out.position() == 0) return;
+            out.flip();
+            connection.channel.write(out);
+            out.compact();
+        }
+
+        private void release(SelectionKey key, Connection connection) {
+            key.cancel();
+            closeQuietly(connection.channel);
+            connection.channel = null;
+            connection.blocked = false;
+            connection.in.clear();
+            connection.out.clear();
+            if (connection.out.capacity() > connection.outCapacity) {
+                connection.out = ByteBuffer.allocateDirect(connection.outCapacity);
+            }
+            pool.add(connection);
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // the connection is discarded either way
+        }
+    }
+
+    /**
+     * The state of a connection. The buffers stay in write mode between events. The output buffer grows for the
+     * results of compressed tokens and goes back to its usual size when the connection is released.
+     */
+    private class Connection {
+        private final int outCapacity = responseBound(maxFrameBytes, MAX_BATCH);
+        private final ByteBuffer in = ByteBuffer.allocateDirect(Integer.BYTES + maxFrameBytes);
+        private ByteBuffer out = ByteBuffer.allocateDirect(outCapacity);
+        private SocketChannel channel;
+        private boolean blocked;
+
+        /**
+         * Makes room for the given number of bytes in the output buffer, keeping what has been written so far.
+         *
+         * @return the output buffer.
+         */
+        ByteBuffer reserve(int bytes) {
+            if (out.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(out.capacity() * 2, out.position() + bytes));
+                out.flip();
+                out = grown.put(out);
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package io.github.marianciuc.jwtsecurity.snapshot;
+
+import io.github.marianciuc.jwtsecurity.exceptions.JwtSecurityException;
+import io.github.marianciuc.jwtsecurity.filters.VerificationFailureLimiter;
+import io.github.marianciuc.jwtsecurity.service.impl.MultiTenantJsonWebTokenService;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * The `StateSnapshot` class saves the runtime authentication state of a node to a local file and restores it on
+ * startup, so that a restarted node neither forgets the clients it throttles nor starts with a cold tenant cache.
+ * The snapshot holds the pending refills of the {@link VerificationFailureLimiter} and the identifiers of the tenants
+ * cached by the {@link MultiTenantJsonWebTokenService}; tenant keys are never written, they are looked up again in
+ * the tenant registry.
+ * <p>
+ * The snapshot is a compact binary file written through a memory-mapped temporary file, forced to disk and then
+ * atomically renamed over the previous snapshot; the directory is then forced too, so that the rename itself is
+ * durable. A crash leaves either the old or the new snapshot in place. A
+ * CRC32 checksum guards against truncated or corrupted files. Refills that have passed by the time the snapshot is
+ * restored are skipped.
+ *
+ * @author Vladimir Marianciuc
+ * @version 1.0
+ */
+public class StateSnapshot {
+
+    private static final Log LOG = LogFactory.getLog(StateSnapshot.class);
+    private static final int MAGIC = 0x4A575453;
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Long.BYTES;
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String CORRUPT_SNAPSHOT = "The snapshot file is corrupt: ";
+
+    private final Path file;
+    private final VerificationFailureLimiter failureLimiter;
+    private final MultiTenantJsonWebTokenService tenantService;
+    private final AtomicLong failedSaves = new AtomicLong();
+
+    /**
+     * StateSnapshot class constructor.
+     *
+     * @param file           the snapshot file.
+     * @param failureLimiter the limiter to snapshot, or null.
+     * @param tenantService  the multi-tenant service to snapshot, or null.
+     */
+    public StateSnapshot(Path file, VerificationFailureLimiter failureLimiter, MultiTenantJsonWebTokenService tenantService) {
+        this.file = file;
+        this.failureLimiter = failureLimiter;
+        this.tenantService = tenantService;
+    }
+
+    /**
+     * Saves the snapshot periodically. A failed save is logged and counted, and the next save is attempted as
+     * scheduled.
+     *
+     * @param executor the executor running the saves.
+     * @param period   the time between two saves.
+     * @return the future of the scheduled saves, to cancel them.
+     */
+    public ScheduledFuture<?> scheduleSaves(ScheduledExecutorService executor, Duration period) {
+        return executor.scheduleAtFixedRate(() -> {
+            try {
+                save();
+            } catch (IOException | RuntimeException e) {
+                failedSaves.incrementAndGet();
+                LOG.warn("Failed to save the snapshot " + file, e);
+            }
+        }, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the number of scheduled saves that failed.
+     *
+     * @return the number of failed saves.
+     */
+    public long getFailedSaveCount() {
+        return failedSaves.get();
+    }
+
+    /**
+     * Writes the current state to the snapshot file, replacing the previous snapshot atomically.
+     *
+     * @throws IOException if the snapshot can't be written.
+     */
+    public void save() throws IOException {
+        List<byte[]> refillKeys = new ArrayList<>();
+        List<Long> refillTimes = new ArrayList<>();
+        if (failureLimiter != null) {
+            for (Map.Entry<String, Long> refill : failureLimiter.getPendingRefills().entrySet()) {
+                byte[] key = refill.getKey().getBytes(StandardCharsets.UTF_8);
+                if (key.length > 0xFFFF) continue;
+                refillKeys.add(key);
+                refillTimes.add(refill.getValue());
+            }
+        }
+        List<byte[]> tenants = new ArrayList<>();
+        if (tenantService != null) {
+            for (String tenantId : tenantService.getCachedTenants()) {
+                byte[] tenant = tenantId.getBytes(StandardCharsets.UTF_8);
+                if (tenant.length <= 0xFFFF) tenants.add(tenant);
+            }
+        }
+
+        long size = HEADER_BYTES + Integer.BYTES + Integer.BYTES + Long.BYTES;
+        for (byte[] key : refillKeys) size += Short.BYTES + key.length + Long.BYTES;
+        for (byte[] tenant : tenants) size += Short.BYTES + tenant.length;
+
+        Path temporary = file.resolveSibling(file.getFileName() + TEMPORARY_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putShort(VERSION).putLong(System.currentTimeMillis());
+            buffer.putInt(refillKeys.size());
+            for (int i = 0; i < refillKeys.size(); i++) {
+                putString(buffer, refillKeys.get(i));
+                buffer.putLong(refillTimes.get(i));
+            }
+            buffer.putInt(tenants.size());
+            for (byte[] tenant : tenants) putString(buffer, tenant);
+            buffer.putLong(checksum(buffer, buffer.position()));
+            buffer.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Forces the directory entry of a rename to disk. Platforms that can't open directories, such as Windows, make
+     * renames durable on their own.
+     */
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // the directory can't be opened on this platform
+        }
+    }
+
+    /**
+     * Restores the state saved in the snapshot file, skipping refills that have passed and tenants that are no
+     * longer registered.
+     *
+     * @return the number of restored entries; 0 if there is no snapshot file.
+     * @throws IOException if the snapshot can't be read or is corrupt.
+     */
+    public int restore() throws IOException {
+        if (!Files.exists(file)) return 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + Long.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException(CORRUPT_SNAPSHOT + "unexpected size " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int dataBytes = (int) size - Long.BYTES;
+            if (buffer.getLong(dataBytes) != checksum(buffer, dataBytes)) {
+                throw new IOException(CORRUPT_SNAPSHOT + "checksum mismatch");
+            }
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                throw new IOException(CORRUPT_SNAPSHOT + "unknown format");
+            }
+            buffer.getLong();
+
+            try {
+                return restoreEntries(buffer);
+            } catch (RuntimeException e) {
+                throw new IOException(CORRUPT_SNAPSHOT + e.getMessage(), e);
+            }
+        }
+    }
+
+    private int restoreEntries(ByteBuffer buffer) {
+        int restored = 0;
+        long now = System.currentTimeMillis();
+        int refills = buffer.getInt();
+        for (int i = 0; i < refills; i++) {
+            String clientKey = getString(buffer);
+            long refilledAt = buffer.getLong();
+            if (failureLimiter != null && refilledAt > now) {
+                failureLimiter.restoreRefill(clientKey, refilledAt);
+                restored++;
+            }
+        }
+        int tenants = buffer.getInt();
+        for (int i = 0; i < tenants; i++) {
+            String tenantId = getString(buffer);
+            if (tenantService == null) continue;
+            try {
+                tenantService.forTenant(tenantId);
+                restored++;
+            } catch (JwtSecurityException e) {
+                // the tenant was removed from the registry since the snapshot was taken
+            }
+        }
+        return restored;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        buffer.putShort((short) value.length);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] value = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static long checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, length));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,265 @@
+package io.github.marianciuc.jwtsecurity.tools;
+
+import io.github.marianciuc.jwtsecurity.enums.VerificationOutcome;
+import io.github.marianciuc.jwtsecurity.exceptions.JsonWebTokenExpiredException;
+import io.github.marianciuc.jwtsecurity.service.JsonWebTokenService;
+import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
+import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+import io.jsonwebtoken.Claims;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The `BulkTokenVerifier` class verifies the bearer tokens captured in access logs offline. Log files are
+ * memory-mapped and scanned in parallel with fork-join; every token is verified against a ring of keys using the
+ * {@link JsonWebTokenServiceImpl} verification logic and the outcomes are aggregated into a {@link VerificationReport}.
+ * Files are never loaded onto the heap, only the matched tokens are.
+ * <p>
+ * Usage: {@code java -cp <classpath> io.github.marianciuc.jwtsecurity.tools.BulkTokenVerifier
+ * --key <base64-secret> [--key <base64-secret>...] [--pattern <regex>] [--bucket-minutes <minutes>]
+ * [--parallelism <threads>] <log-file>...}
+ *
+ * @author Vladimir Marianciuc
+ * @version 1.0
+ */
+public class BulkTokenVerifier implements AutoCloseable {
+
+    /**
+     * Matches the token of an `Authorization: Bearer` value; the first group is the token.
+     */
+    public static final String DEFAULT_PATTERN = "Bearer ([A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]*)";
+
+    private static final String SERVICE_NAME = "bulk-token-verifier";
+    private static final long MAX_WINDOW = 1L << 30;
+    private static final int SPLIT_THRESHOLD = 1 << 20;
+    private static final String USAGE = "Usage: BulkTokenVerifier --key <base64-secret> [--key <base64-secret>...] "
+            + "[--pattern <regex>] [--bucket-minutes <minutes>] [--parallelism <threads>] <log-file>...";
+
+    private final List<JsonWebTokenService> keyRing;
+    private final Pattern pattern;
+    private final long bucketMillis;
+    private final ForkJoinPool pool;
+
+    /**
+     * BulkTokenVerifier class constructor.
+     *
+     * @param secretKeys  the secret keys to verify tokens with, in order of preference.
+     * @param pattern     the pattern extracting tokens; its first group, if any, is the token.
+     * @param bucket      the width of the expiration time buckets.
+     * @param parallelism the number of verification threads.
+     */
+    public BulkTokenVerifier(List<String> secretKeys, Pattern pattern, Duration bucket, int parallelism) {
+        if (secretKeys.isEmpty()) throw new IllegalArgumentException("At least one key is required");
+        this.keyRing = new ArrayList<>();
+        for (String secretKey : secretKeys) {
+            keyRing.add(new JsonWebTokenServiceImpl(SERVICE_NAME, secretKey, 0L, 0L));
+        }
+        this.pattern = pattern;
+        this.bucketMillis = bucket.toMillis();
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> keys = new ArrayList<>();
+        List<Path> files = new ArrayList<>();
+        String pattern = DEFAULT_PATTERN;
+        long bucketMinutes = 60;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--key" -> keys.add(args[++i]);
+                    case "--pattern" -> pattern = args[++i];
+                    case "--bucket-minutes" -> bucketMinutes = Long.parseLong(args[++i]);
+                    case "--parallelism" -> parallelism = Integer.parseInt(args[++i]);
+                    default -> files.add(Path.of(args[i]));
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            keys.clear();
+        }
+        if (keys.isEmpty() || files.isEmpty()) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        try (BulkTokenVerifier verifier = new BulkTokenVerifier(
+                keys, Pattern.compile(pattern), Duration.ofMinutes(bucketMinutes), parallelism)) {
+            verifier.verify(files, System.out);
+        }
+    }
+
+    /**
+     * Verifies the tokens of all files, printing the report of every file as soon as it is complete followed by the
+     * report of all files.
+     *
+     * @param files the log files to scan.
+     * @param out the stream to print the reports to.
+     * @return the report of all files.
+     * @throws IOException if a file can't be read.
+     */
+    public VerificationReport verify(List<Path> files, PrintStream out) throws IOException {
+        VerificationReport total = new VerificationReport();
+        for (Path file : files) {
+            VerificationReport report = verify(file);
+            report.print(file.toString(), out);
+            total.merge(report);
+        }
+        if (files.size() > 1) total.print("total", out);
+        return total;
+    }
+
+    /**
+     * Verifies the tokens of one file. Files larger than the mapping window are mapped window by window; every
+     * window ends on a line boundary so that no token is cut.
+     *
+     * @param file the log file to scan.
+     * @return the report of the file.
+     * @throws IOException if the file can't be read or holds a line longer than the mapping window.
+     */
+    public VerificationReport verify(Path file) throws IOException {
+        VerificationReport report = new VerificationReport();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(MAX_WINDOW, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int end = (int) length;
+                if (position + length < size) {
+                    end = lastLineEnd(buffer, end);
+                    if (end < 0) {
+                        throw new IOException(String.format("%s: the line at offset %d is longer than the mapping "
+                                + "window of %d bytes", file, position, MAX_WINDOW));
+                    }
+                }
+                report.merge(pool.invoke(new VerifyTask(buffer, 0, end)));
+                position += end;
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Shuts down the verification threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static int lastLineEnd(MappedByteBuffer buffer, int end) {
+        for (int i = end - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') return i + 1;
+        }
+        return -1;
+    }
+
+    private static int nextLineStart(MappedByteBuffer buffer, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer.get(i) == '\n') return i + 1;
+        }
+        return end;
+    }
+
+    /**
+     * Verifies a token against every key of the ring until one of them verifies its signature.
+     *
+     * @param token the token to verify.
+     * @return the result of the verification.
+     */
+    private Result verifyToken(String token) {
+        VerificationOutcome outcome = VerificationOutcome.INVALID_SIGNATURE;
+        for (int keyIndex = 0; keyIndex < keyRing.size(); keyIndex++) {
+            try {
+                JwtUserDetails userDetails = keyRing.get(keyIndex).parseToken(token);
+                Date expiration = userDetails.getClaim(Claims.EXPIRATION, Date.class);
+                return new Result(VerificationOutcome.VALID, keyIndex, userDetails.getUsername(), userDetails.getRole(),
+                        bucket(expiration));
+            } catch (JsonWebTokenExpiredException e) {
+                return expired(keyIndex, e.getClaims());
+            } catch (RuntimeException e) {
+                outcome = VerificationOutcome.of(e);
+                if (outcome != VerificationOutcome.INVALID_SIGNATURE) break;
+            }
+        }
+        return new Result(outcome, -1, null, null, -1);
+    }
+
+    /**
+     * Builds the result of an expired token from its verified claims; the signature was checked before the
+     * expiration, so the claims can be trusted.
+     */
+    private Result expired(int keyIndex, Map<String, Object> claims) {
+        Object subject = claims.get(Claims.SUBJECT);
+        Object role = claims.get(JsonWebTokenServiceImpl.ROLE_CLAIM);
+        Date expiration = claims.get(Claims.EXPIRATION) instanceof Number seconds
+                ? new Date(seconds.longValue() * 1000) : null;
+        return new Result(VerificationOutcome.EXPIRED, keyIndex, subject instanceof String value ? value : null,
+                role instanceof String value ? value : null, bucket(expiration));
+    }
+
+    private long bucket(Date expiration) {
+        return expiration == null ? -1 : expiration.getTime() - expiration.getTime() % bucketMillis;
+    }
+
+    private record Result(VerificationOutcome outcome, int keyIndex, String subject, String role, long bucket) {
+    }
+
+    /**
+     * Scans a region of a mapped window, splitting it on line boundaries until it is small enough to scan directly.
+     * Tokens repeated within a region are verified once.
+     */
+    private class VerifyTask extends RecursiveTask<VerificationReport> {
+        private final MappedByteBuffer buffer;
+        private final int start;
+        private final int end;
+
+        VerifyTask(MappedByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected VerificationReport compute() {
+            if (end - start > SPLIT_THRESHOLD) {
+                int middle = nextLineStart(buffer, start + (end - start) / 2, end);
+                if (middle < end) {
+                    VerifyTask left = new VerifyTask(buffer, start, middle);
+                    left.fork();
+                    VerificationReport right = new VerifyTask(buffer, middle, end).compute();
+                    return left.join().merge(right);
+                }
+            }
+            return scan();
+        }
+
+        private VerificationReport scan() {
+            VerificationReport report = new VerificationReport();
+            Map<String, Result> verified = new HashMap<>();
+            Matcher matcher = pattern.matcher(new AsciiCharSequence(buffer, start, end - start));
+            while (matcher.find()) {
+                String token = matcher.groupCount() > 0 ? matcher.group(1) : matcher.group();
+                Result result = verified.computeIfAbsent(token, BulkTokenVerifier.this::verifyToken);
+                report.record(result.outcome(), result.keyIndex(), result.subject(), result.role(), result.bucket());
+            }
+            return report;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.marianciuc.jwtsecurity.tools;
+
+import io.github.marianciuc.jwtsecurity.enums.VerificationOutcome;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The VerificationReport class aggregates the outcomes of a bulk token verification: counts by outcome, by
+ * verification key, by subject, by role and by expiration time bucket. Subject, role and time bucket are only known
+ * for tokens whose claims were verified.
+ * @author Vladimir Marianciuc
+ * @version 1.0
+ */
+public class VerificationReport {
+
+    private static final int TOP_SUBJECTS = 20;
+
+    private final Map<VerificationOutcome, Long> outcomes = new EnumMap<>(VerificationOutcome.class);
+    private final Map<Integer, Long> keys = new TreeMap<>();
+    private final Map<String, Long> subjects = new HashMap<>();
+    private final Map<String, Long> roles = new HashMap<>();
+    private final Map<Long, Long> buckets = new TreeMap<>();
+    private long total;
+
+    /**
+     * Records one verified token occurrence.
+     *
+     * @param outcome the outcome of the verification.
+     * @param keyIndex the index of the key that verified the signature, or -1 if no key did.
+     * @param subject the subject of the token, or null if unknown.
+     * @param role the role of the token, or null if unknown.
+     * @param bucket the start of the expiration time bucket in epoch milliseconds, or -1 if unknown.
+     */
+    void record(VerificationOutcome outcome, int keyIndex, String subject, String role, long bucket) {
+        total++;
+        outcomes.merge(outcome, 1L, Long::sum);
+        if (keyIndex >= 0) keys.merge(keyIndex, 1L, Long::sum);
+        if (subject != null) subjects.merge(subject, 1L, Long::sum);
+        if (role != null) roles.merge(role, 1L, Long::sum);
+        if (bucket >= 0) buckets.merge(bucket, 1L, Long::sum);
+    }
+
+    /**
+     * Adds all counts of the given report to this report.
+     *
+     * @param other the report to merge.
+     * @return this report.
+     */
+    VerificationReport merge(VerificationReport other) {
+        total += other.total;
+        other.outcomes.forEach((key, count) -> outcomes.merge(key, count, Long::sum));
+        other.keys.forEach((key, count) -> keys.merge(key, count, Long::sum));
+        other.subjects.forEach((key, count) -> subjects.merge(key, count, Long::sum));
+        other.roles.forEach((key, count) -> roles.merge(key, count, Long::sum));
+        other.buckets.forEach((key, count) -> buckets.merge(key, count, Long::sum));
+        return this;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getCount(VerificationOutcome outcome) {
+        return outcomes.getOrDefault(outcome, 0L);
+    }
+
+    public Map<Integer, Long> getKeyCounts() {
+        return Collections.unmodifiableMap(keys);
+    }
+
+    public Map<String, Long> getSubjectCounts() {
+        return Collections.unmodifiableMap(subjects);
+    }
+
+    public Map<String, Long> getRoleCounts() {
+        return Collections.unmodifiableMap(roles);
+    }
+
+    public Map<Long, Long> getBucketCounts() {
+        return Collections.unmodifiableMap(buckets);
+    }
+
+    /**
+     * Prints the report in a human-readable form.
+     *
+     * @param title the title of the report.
+     * @param out the stream to print to.
+     */
+    public void print(String title, PrintStream out) {
+        out.println("== " + title + " (" + total + " tokens)");
+        outcomes.forEach((outcome, count) -> out.println("outcome " + outcome + ": " + count));
+        keys.forEach((key, count) -> out.println("key #" + key + ": " + count));
+        roles.forEach((role, count) -> out.println("role " + role + ": " + count));
+        subjects.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_SUBJECTS)
+                .forEach(entry -> out.println("subject " + entry.getKey() + ": " + entry.getValue()));
+        buckets.forEach((bucket, count) -> out.println("expires " + Instant.ofEpochMilli(bucket) + ": " + count));
+    }
+}
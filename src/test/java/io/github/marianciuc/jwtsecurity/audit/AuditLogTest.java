@@ -0,0 +1,149 @@
+package io.github.marianciuc.jwtsecurity.audit;
+
+import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.enums.VerificationOutcome;
+import io.github.marianciuc.jwtsecurity.exceptions.JwtSecurityException;
+import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
+import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+import io.github.marianciuc.jwtsecurity.service.impl.MultiTenantJsonWebTokenService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testAuditLog_recordsIssuedAndRejectedTokens() throws IOException {
+        JsonWebTokenServiceImpl service = newService();
+        try (AuditLog auditLog = new AuditLog(directory, 64, AuditLog.OverflowPolicy.BLOCK, 0, 1 << 20)) {
+            service.setAuditLog(auditLog);
+            JwtUserDetails user = service.create("user", "ROLE_USER", UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+            String token = service.generateAccessToken(user);
+            service.parseAccessToken(token);
+            assertThrows(RuntimeException.class, () -> service.parseAccessToken(newService().generateAccessToken(user)));
+        }
+
+        List<String> lines = readLines();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"outcome\":\"ISSUED\""));
+        assertTrue(lines.get(0).contains("\"sub\":\"user\""));
+        assertTrue(lines.get(1).contains("\"outcome\":\"INVALID_SIGNATURE\""));
+    }
+
+    @Test
+    public void testAuditLog_recordsFinalDecision() throws IOException {
+        JsonWebTokenServiceImpl service = newService();
+        try (AuditLog auditLog = new AuditLog(directory, 64, AuditLog.OverflowPolicy.BLOCK, 1, 1 << 20)) {
+            JwtUserDetails user = service.create("user", "ROLE_USER", UUID.randomUUID(), TokenType.REFRESH_TOKEN);
+            String refreshToken = service.generateRefreshToken(user);
+            service.setAuditLog(auditLog);
+            assertThrows(JwtSecurityException.class, () -> service.parseAccessToken(refreshToken));
+
+            MultiTenantJsonWebTokenService tenants = new MultiTenantJsonWebTokenService(tenantId -> null, 10, Duration.ofMinutes(5));
+            tenants.setAuditLog(auditLog);
+            String foreignToken = new JsonWebTokenServiceImpl("SERVICE", newSecret(), 3600000L, 3600000L, "tenant-x")
+                    .generateAccessToken(user);
+            assertThrows(JwtSecurityException.class, () -> tenants.parseAccessToken(foreignToken));
+
+            auditLog.throttled("10.0.0.1");
+        }
+
+        List<String> lines = readLines();
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("\"outcome\":\"WRONG_TYPE\""));
+        assertTrue(lines.get(0).contains("\"type\":\"REFRESH_TOKEN\""));
+        assertTrue(lines.get(1).contains("\"outcome\":\"UNKNOWN_TENANT\""));
+        assertTrue(lines.get(1).contains("\"kid\":\"tenant-x\""));
+        assertTrue(lines.get(2).contains("\"outcome\":\"THROTTLED\""));
+        assertTrue(lines.get(2).contains("\"client\":\"10.0.0.1\""));
+    }
+
+    @Test
+    public void testAuditLog_accountsForRecordsOfferedWhileClosing() throws Exception {
+        int producers = 4;
+        AtomicLong offered = new AtomicLong();
+        AuditLog auditLog = new AuditLog(directory, 1024, AuditLog.OverflowPolicy.DROP, 1, 1 << 20);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch started = new CountDownLatch(producers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < producers; i++) {
+            futures.add(executor.submit(() -> {
+                started.countDown();
+                for (int j = 0; j < 20000; j++) {
+                    auditLog.issued("user", null, null, null, null);
+                    offered.incrementAndGet();
+                }
+            }));
+        }
+        started.await();
+        auditLog.close();
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+
+        assertEquals(offered.get(), readLines().size() + auditLog.getDroppedCount());
+    }
+
+    @Test
+    public void testAuditLog_samplesSuccessfulVerifications() throws IOException {
+        try (AuditLog auditLog = new AuditLog(directory, 64, AuditLog.OverflowPolicy.BLOCK, 1, 1 << 20)) {
+            auditLog.verified(VerificationOutcome.VALID, "user", null, "ACCESS_TOKEN", null, null);
+            auditLog.verified(VerificationOutcome.EXPIRED, "user\"", null, null, null, null);
+        }
+
+        List<String> lines = readLines();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"outcome\":\"VALID\""));
+        assertTrue(lines.get(1).contains("\"sub\":\"user\\\"\""));
+    }
+
+    @Test
+    public void testAuditLog_rollsFiles() throws IOException {
+        try (AuditLog auditLog = new AuditLog(directory, 2, AuditLog.OverflowPolicy.BLOCK, 1, 1)) {
+            for (int i = 0; i < 10; i++) {
+                auditLog.issued("user", null, null, null, null);
+            }
+        }
+
+        assertEquals(10, readLines().size());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.count() > 1);
+        }
+    }
+
+    private List<String> readLines() throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                lines.addAll(Files.readAllLines(file));
+            }
+        }
+        return lines;
+    }
+
+    private static JsonWebTokenServiceImpl newService() {
+        return new JsonWebTokenServiceImpl("SERVICE", newSecret(), 3600000L, 3600000L);
+    }
+
+    private static String newSecret() {
+        return Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes());
+    }
+}
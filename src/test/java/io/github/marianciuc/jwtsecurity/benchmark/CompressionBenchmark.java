@@ -0,0 +1,71 @@
+package io.github.marianciuc.jwtsecurity.benchmark;
+
+import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
+import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows the bandwidth versus CPU trade-off of payload compression: the time to generate and to parse tokens carrying
+ * permission lists of increasing size, with and without compression. The token length of every combination is
+ * printed before it is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+
+    @Param({"0", "64", "256", "1024"})
+    public int permissions;
+
+    @Param({"false", "true"})
+    public boolean compressed;
+
+    private JsonWebTokenServiceImpl service;
+    private JwtUserDetails userDetails;
+    private Map<String, ?> claims;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        String secret = Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes());
+        service = new JsonWebTokenServiceImpl("benchmark", secret, 3_600_000L, 3_600_000L);
+        service.setCompressionThreshold(compressed ? 0 : -1);
+        userDetails = service.create("alice", "ROLE_USER", UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < permissions; i++) values.add((i % 3 == 0 ? "orders" : "invoices") + ":write:tenant-" + i);
+        claims = Map.of("permissions", values, "tenant", "acme");
+        token = service.generateAccessToken(userDetails, claims);
+        System.out.printf("%n%d permissions, compressed=%b: token of %d characters%n", permissions, compressed, token.length());
+    }
+
+    @Benchmark
+    public String generate() {
+        return service.generateAccessToken(userDetails, claims);
+    }
+
+    @Benchmark
+    public JwtUserDetails parse() {
+        return service.parseAccessToken(token);
+    }
+}
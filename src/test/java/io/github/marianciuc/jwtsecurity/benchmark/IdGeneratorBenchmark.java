@@ -0,0 +1,57 @@
+package io.github.marianciuc.jwtsecurity.benchmark;
+
+import io.github.marianciuc.jwtsecurity.service.IdGenerator;
+import io.github.marianciuc.jwtsecurity.service.impl.TimeOrderedIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of {@link TimeOrderedIdGenerator} with {@link UUID#randomUUID()} on one thread and on all
+ * cores. The ratio between the two thread counts shows how each generator scales; run with {@code -t <threads>} to
+ * plot intermediate thread counts.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+    private final IdGenerator generator = new TimeOrderedIdGenerator();
+
+    @Benchmark
+    @Threads(1)
+    public UUID randomUuidSingleThread() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public UUID randomUuidAllCores() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public UUID timeOrderedSingleThread() {
+        return generator.generate();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public UUID timeOrderedAllCores() {
+        return generator.generate();
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.marianciuc.jwtsecurity.benchmark;
+
+import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.oauth2.JsonWebTokenAuthenticationConverter;
+import io.github.marianciuc.jwtsecurity.oauth2.JsonWebTokenDecoder;
+import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares verifying the library's access tokens in a resource server with {@link JsonWebTokenDecoder} and with
+ * Spring's {@link NimbusJwtDecoder}, alone and followed by the conversion into an authentication.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtDecoderBenchmark {
+
+    private String token;
+    private JwtDecoder libraryDecoder;
+    private JsonWebTokenAuthenticationConverter libraryConverter;
+    private JwtDecoder nimbusDecoder;
+    private JwtAuthenticationConverter nimbusConverter;
+
+    @Setup
+    public void setUp() {
+        byte[] secret = UUID.randomUUID().toString().getBytes();
+        JsonWebTokenServiceImpl service = new JsonWebTokenServiceImpl(
+                "benchmark", Base64.getEncoder().encodeToString(secret), 3_600_000L, 3_600_000L);
+        token = service.generateAccessToken(
+                service.create("alice", "ROLE_USER", UUID.randomUUID(), TokenType.ACCESS_TOKEN), Map.of("tenant", "acme"));
+
+        libraryDecoder = new JsonWebTokenDecoder(service);
+        libraryConverter = new JsonWebTokenAuthenticationConverter();
+        nimbusDecoder = NimbusJwtDecoder.withSecretKey(new SecretKeySpec(secret, "HmacSHA256")).build();
+        nimbusConverter = new JwtAuthenticationConverter();
+    }
+
+    @Benchmark
+    public Jwt libraryDecode() {
+        return libraryDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt nimbusDecode() {
+        return nimbusDecoder.decode(token);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken libraryDecodeAndConvert() {
+        return libraryConverter.convert(libraryDecoder.decode(token));
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken nimbusDecodeAndConvert() {
+        return nimbusConverter.convert(nimbusDecoder.decode(token));
+    }
+}
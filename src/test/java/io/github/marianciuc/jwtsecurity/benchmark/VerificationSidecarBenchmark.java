@@ -0,0 +1,111 @@
+package io.github.marianciuc.jwtsecurity.benchmark;
+
+import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+import io.github.marianciuc.jwtsecurity.sidecar.VerificationSidecar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many tokens per second co-located clients verify through the {@link VerificationSidecar}, sending
+ * batches of {@value #BATCH} tokens on one connection per client thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class VerificationSidecarBenchmark {
+
+    static final int BATCH = 64;
+
+    @State(Scope.Benchmark)
+    public static class Daemon {
+        Path directory;
+        Path socket;
+        VerificationSidecar sidecar;
+        byte[] batch;
+
+        @Setup
+        public void setUp() throws IOException {
+            String secret = Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes());
+            JsonWebTokenServiceImpl service = new JsonWebTokenServiceImpl("benchmark", secret, 3_600_000L, 3_600_000L);
+            directory = Files.createTempDirectory("jwt-sidecar");
+            socket = directory.resolve("jwt.sock");
+            sidecar = new VerificationSidecar(service, socket, Runtime.getRuntime().availableProcessors(),
+                    VerificationSidecar.DEFAULT_MAX_FRAME_BYTES);
+
+            ByteBuffer frame = ByteBuffer.allocate(VerificationSidecar.DEFAULT_MAX_FRAME_BYTES);
+            frame.putInt(0).putInt(1).put(VerificationSidecar.VERIFY_BATCH).putShort((short) BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                byte[] token = service.generateAccessToken(service.create("user-" + i, "ROLE_USER", UUID.randomUUID(),
+                        TokenType.ACCESS_TOKEN)).getBytes(StandardCharsets.US_ASCII);
+                frame.putInt(token.length).put(token);
+            }
+            frame.putInt(0, frame.position() - Integer.BYTES);
+            batch = new byte[frame.position()];
+            frame.flip().get(batch);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            sidecar.close();
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        SocketChannel channel;
+        ByteBuffer request;
+        ByteBuffer response = ByteBuffer.allocateDirect(VerificationSidecar.DEFAULT_MAX_FRAME_BYTES);
+
+        @Setup(Level.Trial)
+        public void setUp(Daemon daemon) throws IOException {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(daemon.socket));
+            request = ByteBuffer.allocateDirect(daemon.batch.length).put(daemon.batch);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            channel.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int verifyBatch(Client client) throws IOException {
+        client.request.clear();
+        while (client.request.hasRemaining()) client.channel.write(client.request);
+        ByteBuffer response = client.response;
+        response.clear();
+        while (response.position() < Integer.BYTES || response.position() < Integer.BYTES + response.getInt(0)) {
+            if (client.channel.read(response) < 0) throw new IOException("Connection closed");
+        }
+        return response.position();
+    }
+}
@@ -7,6 +7,8 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -68,4 +70,23 @@ public class JwtUserTest {
         JwtUser jwtUserWithNullRole = new JwtUser("Subject", null, UUID.randomUUID(), TokenType.ACCESS_TOKEN);
         assertThrows(IncorrectDataException.class, jwtUserWithNullRole::getAuthorities);
     }
+
+    @Test
+    public void testGetClaim_whenNotParsedFromToken_returnsNull() {
+        JwtUser jwtUser = new JwtUser("Subject", "ROLE_USER", UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+        assertNull(jwtUser.getClaim("tenant", String.class));
+    }
+
+    @Test
+    public void testGetClaimMemoizesConvertedValues() {
+        JwtUser jwtUser = new JwtUser("Subject", "ROLE_USER", UUID.randomUUID(), TokenType.ACCESS_TOKEN,
+                Map.of("exp", 1_700_000_000L, "tenant", "acme"));
+
+        Date expiration = jwtUser.getClaim("exp", Date.class);
+        assertEquals(new Date(1_700_000_000_000L), expiration);
+        assertSame(expiration, jwtUser.getClaim("exp", Date.class));
+        assertEquals(1_700_000_000L, jwtUser.getClaim("exp", Long.class));
+        assertEquals("acme", jwtUser.getClaim("tenant", String.class));
+        assertThrows(IncorrectDataException.class, () -> jwtUser.getClaim("tenant", Date.class));
+    }
 }
@@ -0,0 +1,121 @@
+package io.github.marianciuc.jwtsecurity.filters;
+
+import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
+import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessTokenRenewerTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes());
+
+    @Test
+    public void testRenewIfExpiring_whenInsideWindow_renewsOncePerToken() {
+        JsonWebTokenServiceImpl expiringService = new JsonWebTokenServiceImpl("SERVICE", SECRET, 30000L, 30000L);
+        JsonWebTokenServiceImpl freshService = new JsonWebTokenServiceImpl("SERVICE", SECRET, 3600000L, 3600000L);
+        AccessTokenRenewer renewer = new AccessTokenRenewer(freshService, Duration.ofMinutes(1),
+                AccessTokenRenewer.DEFAULT_RESPONSE_HEADER, 16);
+        String token = expiringService.generateAccessToken(
+                expiringService.create("user", "ROLE_USER", UUID.randomUUID(), TokenType.ACCESS_TOKEN));
+        JwtUserDetails userDetails = freshService.parseAccessToken(token);
+
+        String renewed = renewer.renewIfExpiring(token, userDetails);
+
+        assertNotNull(renewed);
+        assertNotEquals(token, renewed);
+        assertEquals("user", freshService.parseAccessToken(renewed).getUsername());
+        assertSame(renewed, renewer.renewIfExpiring(token, userDetails));
+    }
+
+    @Test
+    public void testRenewIfExpiring_keepsCustomClaims() {
+        JsonWebTokenServiceImpl expiringService = new JsonWebTokenServiceImpl("SERVICE", SECRET, 30000L, 30000L);
+        JsonWebTokenServiceImpl freshService = new JsonWebTokenServiceImpl("SERVICE", SECRET, 3600000L, 3600000L);
+        AccessTokenRenewer renewer = new AccessTokenRenewer(freshService, Duration.ofMinutes(1),
+                AccessTokenRenewer.DEFAULT_RESPONSE_HEADER, 16);
+        String token = expiringService.generateAccessToken(
+                expiringService.create("user", "ROLE_USER", UUID.randomUUID(), TokenType.ACCESS_TOKEN),
+                Map.of("tenant", "acme"));
+
+        String renewed = renewer.renewIfExpiring(token, freshService.parseAccessToken(token));
+
+        assertEquals("acme", freshService.parseAccessToken(renewed).getClaim("tenant", String.class));
+    }
+
+    @Test
+    public void testRenewIfExpiring_whenOutsideWindow_returnsNull() {
+        JsonWebTokenServiceImpl service = new JsonWebTokenServiceImpl("SERVICE", SECRET, 3600000L, 3600000L);
+        AccessTokenRenewer renewer = new AccessTokenRenewer(service, Duration.ofMinutes(1),
+                AccessTokenRenewer.DEFAULT_RESPONSE_HEADER, 16);
+        String token = service.generateAccessToken(
+                service.create("user", "ROLE_USER", UUID.randomUUID(), TokenType.ACCESS_TOKEN));
+
+        assertNull(renewer.renewIfExpiring(token, service.parseAccessToken(token)));
+    }
+
+    @Test
+    public void testRenewIfExpiring_whenFull_stillSignsEachTokenOnce() throws Exception {
+        JsonWebTokenServiceImpl expiringService = new JsonWebTokenServiceImpl("SERVICE", SECRET, 30000L, 30000L);
+        ConcurrentMap<String, AtomicInteger> signed = new ConcurrentHashMap<>();
+        JsonWebTokenServiceImpl freshService = new JsonWebTokenServiceImpl("SERVICE", SECRET, 3600000L, 3600000L) {
+            @Override
+            public String generateAccessToken(JwtUserDetails userDetails, Map<String, ?> claims) {
+                signed.computeIfAbsent(userDetails.getUsername(), key -> new AtomicInteger()).incrementAndGet();
+                return super.generateAccessToken(userDetails, claims);
+            }
+        };
+        int maxEntries = 4;
+        AccessTokenRenewer renewer = new AccessTokenRenewer(freshService, Duration.ofMinutes(1),
+                AccessTokenRenewer.DEFAULT_RESPONSE_HEADER, maxEntries);
+        for (int i = 0; i < maxEntries; i++) {
+            String filler = expiringService.generateAccessToken(
+                    expiringService.create("filler" + i, "ROLE_USER", UUID.randomUUID(), TokenType.ACCESS_TOKEN));
+            renewer.renewIfExpiring(filler, freshService.parseAccessToken(filler));
+        }
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < maxEntries; i++) {
+            tokens.add(expiringService.generateAccessToken(
+                    expiringService.create("user" + i, "ROLE_USER", UUID.randomUUID(), TokenType.ACCESS_TOKEN)));
+        }
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads * 8; i++) {
+                String token = tokens.get(i % tokens.size());
+                JwtUserDetails userDetails = freshService.parseAccessToken(token);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return renewer.renewIfExpiring(token, userDetails);
+                }));
+            }
+            start.countDown();
+            Set<String> renewed = ConcurrentHashMap.newKeySet();
+            for (Future<String> result : results) renewed.add(result.get());
+
+            assertEquals(tokens.size(), renewed.size());
+            for (int i = 0; i < tokens.size(); i++) assertEquals(1, signed.get("user" + i).get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
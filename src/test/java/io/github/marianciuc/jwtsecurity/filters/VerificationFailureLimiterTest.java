@@ -0,0 +1,60 @@
+package io.github.marianciuc.jwtsecurity.filters;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class VerificationFailureLimiterTest {
+
+    @Test
+    public void testIsBlocked_afterMaxFailures_returnsTrue() {
+        VerificationFailureLimiter limiter = new VerificationFailureLimiter(64, 3, Duration.ofMinutes(1), null);
+
+        limiter.recordFailure("10.0.0.1");
+        limiter.recordFailure("10.0.0.1");
+        assertFalse(limiter.isBlocked("10.0.0.1"));
+
+        limiter.recordFailure("10.0.0.1");
+        assertTrue(limiter.isBlocked("10.0.0.1"));
+        assertFalse(limiter.isBlocked("10.0.0.2"));
+    }
+
+    @Test
+    public void testIsBlocked_afterRefill_returnsFalse() throws InterruptedException {
+        VerificationFailureLimiter limiter = new VerificationFailureLimiter(64, 1, Duration.ofMillis(20), null);
+
+        limiter.recordFailure("10.0.0.1");
+        assertTrue(limiter.isBlocked("10.0.0.1"));
+
+        Thread.sleep(40);
+        assertFalse(limiter.isBlocked("10.0.0.1"));
+    }
+
+    @Test
+    public void testRecordFailure_withManyClients_staysBounded() {
+        VerificationFailureLimiter limiter = new VerificationFailureLimiter(4, 1, Duration.ofMinutes(1), null);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.recordFailure("client-" + i);
+        }
+
+        assertTrue(limiter.isBlocked("client-999"));
+    }
+
+    @Test
+    public void testResolveClientKey_prefersConfiguredHeader() {
+        VerificationFailureLimiter limiter = new VerificationFailureLimiter(64, 1, Duration.ofMinutes(1), "X-Client-Id");
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+
+        assertEquals("10.0.0.1", limiter.resolveClientKey(request));
+
+        when(request.getHeader("X-Client-Id")).thenReturn("client");
+        assertEquals("client", limiter.resolveClientKey(request));
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.marianciuc.jwtsecurity.loadtest;
+
+import io.github.marianciuc.jwtsecurity.filters.JsonWebTokenFilter;
+import io.github.marianciuc.jwtsecurity.service.JsonWebTokenService;
+import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
+import io.github.marianciuc.jwtsecurity.service.impl.UserServiceImpl;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An embedded Tomcat listening on localhost with {@link JsonWebTokenFilter} in front of a servlet returning the name
+ * of the authenticated user. An outer filter plays the part of Spring Security's own filters: it turns rejected
+ * tokens into `401 Unauthorized` and clears the {@link SecurityContextHolder} after each request.
+ */
+public class EmbeddedServer implements AutoCloseable {
+
+    /**
+     * The threads Tomcat runs requests on.
+     */
+    public enum ThreadModel {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    public static final String PATH = "/whoami";
+
+    private static final Logger TOMCAT_LOGGER = Logger.getLogger("org.apache");
+
+    static {
+        TOMCAT_LOGGER.setLevel(Level.WARNING);
+    }
+
+    private final Tomcat tomcat;
+    private final Path baseDir;
+    private final int port;
+
+    /**
+     * Starts the server on an ephemeral port.
+     *
+     * @param jsonWebTokenService the service verifying tokens.
+     * @param threadModel         the threads running requests.
+     * @param maxThreads          the size of the request thread pool; ignored for virtual threads.
+     */
+    public EmbeddedServer(JsonWebTokenService jsonWebTokenService, ThreadModel threadModel, int maxThreads)
+            throws IOException, LifecycleException {
+        baseDir = Files.createTempDirectory("jwt-load-test");
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+
+        Connector connector = new Connector("HTTP/1.1");
+        connector.setPort(0);
+        connector.setProperty("address", "127.0.0.1");
+        connector.setProperty("maxKeepAliveRequests", "-1");
+        connector.setProperty("maxThreads", Integer.toString(maxThreads));
+        if (threadModel == ThreadModel.VIRTUAL) connector.setProperty("useVirtualThreads", "true");
+        tomcat.setConnector(connector);
+
+        StandardContext context = (StandardContext) tomcat.addContext("", null);
+        context.setClearReferencesThreadLocals(false);
+        context.setClearReferencesRmiTargets(false);
+        addFilter(context, "security-context", new SecurityContextFilter());
+        addFilter(context, "json-web-token", new JsonWebTokenFilter(jsonWebTokenService, new UserServiceImpl()));
+        Tomcat.addServlet(context, "whoami", new WhoAmIServlet());
+        context.addServletMappingDecoded(PATH, "whoami");
+
+        tomcat.start();
+        port = connector.getLocalPort();
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public void close() throws LifecycleException, IOException {
+        tomcat.stop();
+        tomcat.destroy();
+        try (var files = Files.walk(baseDir)) {
+            for (Path file : files.sorted((a, b) -> b.compareTo(a)).toList()) Files.deleteIfExists(file);
+        }
+    }
+
+    private static void addFilter(Context context, String name, Filter filter) {
+        FilterDef definition = new FilterDef();
+        definition.setFilterName(name);
+        definition.setFilter(filter);
+        context.addFilterDef(definition);
+        FilterMap mapping = new FilterMap();
+        mapping.setFilterName(name);
+        mapping.addURLPattern("/*");
+        context.addFilterMap(mapping);
+    }
+
+    private static void unauthorized(HttpServletResponse response) {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentLength(0);
+    }
+
+    /**
+     * Rejects requests whose token fails verification and clears the security context, as Spring Security's
+     * exception translation and security context filters do.
+     */
+    private static class SecurityContextFilter implements Filter {
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            try {
+                chain.doFilter(request, response);
+            } catch (RuntimeException e) {
+                if (!response.isCommitted()) unauthorized((HttpServletResponse) response);
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        }
+    }
+
+    private static class WhoAmIServlet extends HttpServlet {
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !(authentication.getPrincipal() instanceof JwtUserDetails user)) {
+                unauthorized(response);
+                return;
+            }
+            byte[] body = user.getUsername().getBytes(StandardCharsets.UTF_8);
+            response.setContentType("text/plain");
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package io.github.marianciuc.jwtsecurity.loadtest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A closed-loop HTTP load generator: every client keeps one keep-alive connection and sends its next request as soon
+ * as the previous response is read, cycling through a fixed list of requests from its own offset. Latencies are only
+ * recorded during the measurement window, after the warm-up.
+ * <p>
+ * The client speaks just enough HTTP/1.1 to read status lines and `Content-Length` or chunked bodies, so that the
+ * generator spends as little CPU as possible next to the server it measures.
+ */
+public class LoadGenerator {
+
+    /**
+     * A request with the status the server is expected to answer it with.
+     *
+     * @param label          what the request stands for, such as the kind of token it carries.
+     * @param bytes          the HTTP request.
+     * @param expectedStatus the expected HTTP status.
+     */
+    public record Request(String label, byte[] bytes, int expectedStatus) {
+
+        /**
+         * Creates a `GET` request carrying a bearer token.
+         */
+        public static Request bearer(String label, String path, String token, int expectedStatus) {
+            String request = "GET " + path + " HTTP/1.1\r\nHost: localhost\r\nAuthorization: Bearer " + token + "\r\n\r\n";
+            return new Request(label, request.getBytes(StandardCharsets.US_ASCII), expectedStatus);
+        }
+    }
+
+    private final InetSocketAddress address;
+    private final List<Request> requests;
+    private volatile boolean running;
+    private volatile boolean recording;
+
+    /**
+     * LoadGenerator class constructor.
+     *
+     * @param address  the address of the server.
+     * @param requests the requests to send, in order.
+     */
+    public LoadGenerator(InetSocketAddress address, List<Request> requests) {
+        if (requests.isEmpty()) throw new IllegalArgumentException("At least one request is required");
+        this.address = address;
+        this.requests = List.copyOf(requests);
+    }
+
+    /**
+     * Runs the clients for the warm-up and then for the measurement.
+     *
+     * @param clients  the number of concurrent clients.
+     * @param warmup   the time to run before measuring.
+     * @param duration the length of the measurement.
+     * @return the result of the measurement.
+     */
+    public LoadResult run(int clients, Duration warmup, Duration duration) throws InterruptedException {
+        running = true;
+        recording = false;
+        List<Client> workers = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Client client = new Client(i * requests.size() / clients);
+            workers.add(client);
+            client.thread.start();
+        }
+
+        Thread.sleep(warmup.toMillis());
+        recording = true;
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        recording = false;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        running = false;
+
+        long errors = 0;
+        int total = 0;
+        for (Client client : workers) {
+            client.thread.join();
+            errors += client.errors;
+            total += client.count;
+        }
+        long[] latencies = new long[total];
+        int position = 0;
+        for (Client client : workers) {
+            System.arraycopy(client.latencies, 0, latencies, position, client.count);
+            position += client.count;
+        }
+        return LoadResult.of(clients, latencies, errors, seconds);
+    }
+
+    private class Client implements Runnable {
+        private final Thread thread;
+        private int next;
+        private long[] latencies = new long[1 << 14];
+        private int count;
+        private long errors;
+
+        Client(int offset) {
+            this.next = offset;
+            this.thread = new Thread(this, "load-client-" + offset);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            Connection connection = new Connection();
+            try {
+                while (running) {
+                    Request request = requests.get(next);
+                    next = next + 1 == requests.size() ? 0 : next + 1;
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = connection.exchange(request.bytes());
+                    } catch (IOException e) {
+                        connection.close();
+                        status = -1;
+                    }
+                    long latency = System.nanoTime() - start;
+                    if (recording) record(latency, status == request.expectedStatus());
+                }
+            } finally {
+                connection.close();
+            }
+        }
+
+        private void record(long latency, boolean expected) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = latency;
+            if (!expected) errors++;
+        }
+    }
+
+    /**
+     * A keep-alive HTTP/1.1 connection, reopened whenever the server closes it.
+     */
+    private class Connection implements Closeable {
+        private final StringBuilder line = new StringBuilder(128);
+        private Socket socket;
+        private InputStream in;
+        private OutputStream out;
+
+        int exchange(byte[] request) throws IOException {
+            if (socket == null) open();
+            out.write(request);
+            out.flush();
+
+            String statusLine = readLine();
+            int status = Integer.parseInt(statusLine.substring(9, 12));
+            long contentLength = 0;
+            boolean chunked = false;
+            boolean closing = false;
+            for (String header = readLine(); !header.isEmpty(); header = readLine()) {
+                int colon = header.indexOf(':');
+                if (colon < 0) continue;
+                String name = header.substring(0, colon).trim();
+                String value = header.substring(colon + 1).trim();
+                if (name.equalsIgnoreCase("Content-Length")) contentLength = Long.parseLong(value);
+                else if (name.equalsIgnoreCase("Transfer-Encoding")) chunked = value.equalsIgnoreCase("chunked");
+                else if (name.equalsIgnoreCase("Connection")) closing = value.equalsIgnoreCase("close");
+            }
+            if (chunked) {
+                for (long size = Long.parseLong(readLine().trim(), 16); size > 0; size = Long.parseLong(readLine().trim(), 16)) {
+                    skip(size);
+                    readLine();
+                }
+                readLine();
+            } else {
+                skip(contentLength);
+            }
+            if (closing) close();
+            return status;
+        }
+
+        private void open() throws IOException {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(address);
+            in = new BufferedInputStream(socket.getInputStream(), 8192);
+            out = new BufferedOutputStream(socket.getOutputStream(), 8192);
+        }
+
+        private String readLine() throws IOException {
+            line.setLength(0);
+            while (true) {
+                int b = in.read();
+                if (b < 0) throw new EOFException("Connection closed by the server");
+                if (b == '\n') break;
+                if (b != '\r') line.append((char) b);
+            }
+            return line.toString();
+        }
+
+        private void skip(long bytes) throws IOException {
+            while (bytes > 0) {
+                long skipped = in.skip(bytes);
+                if (skipped <= 0) {
+                    if (in.read() < 0) throw new EOFException("Connection closed by the server");
+                    skipped = 1;
+                }
+                bytes -= skipped;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (socket == null) return;
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // the connection is discarded either way
+            }
+            socket = null;
+        }
+    }
+}
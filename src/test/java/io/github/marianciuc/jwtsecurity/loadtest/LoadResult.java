@@ -0,0 +1,38 @@
+package io.github.marianciuc.jwtsecurity.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * The throughput and latency percentiles of one load test run.
+ *
+ * @param clients  the number of concurrent clients.
+ * @param requests the number of requests completed during the measurement.
+ * @param errors   the number of requests answered with an unexpected status or failing with an I/O error.
+ * @param seconds  the length of the measurement.
+ * @param p50      the median latency, in nanoseconds.
+ * @param p99      the 99th percentile latency, in nanoseconds.
+ * @param p999     the 99.9th percentile latency, in nanoseconds.
+ */
+public record LoadResult(int clients, long requests, long errors, double seconds, long p50, long p99, long p999) {
+
+    /**
+     * Computes the result of a run from the latencies of all its requests.
+     *
+     * @param latencies the latencies, in nanoseconds; sorted in place.
+     */
+    static LoadResult of(int clients, long[] latencies, long errors, double seconds) {
+        Arrays.sort(latencies);
+        return new LoadResult(clients, latencies.length, errors, seconds,
+                percentile(latencies, 0.5), percentile(latencies, 0.99), percentile(latencies, 0.999));
+    }
+
+    public double throughput() {
+        return requests / seconds;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.marianciuc.jwtsecurity.loadtest;
+
+import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.service.JsonWebTokenService;
+import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Measures how the authentication path scales with concurrent requests. For every thread model, an
+ * {@link EmbeddedServer} is started and driven by a {@link LoadGenerator} at increasing numbers of clients, with a mix
+ * of valid, expired and forged tokens; throughput and latency percentiles are printed for every step.
+ * <p>
+ * Usage: {@code mvn test -Pload-test -Dloadtest.args="[--clients 1,2,4,...] [--warmup <seconds>]
+ * [--duration <seconds>] [--mix <valid>:<expired>:<forged>] [--threads platform,virtual] [--max-threads <n>]"}
+ */
+public class LoadTestHarness {
+
+    private static final String SERVICE_NAME = "load-test";
+    private static final int DISTINCT_REQUESTS = 1024;
+
+    public static void main(String[] args) throws Exception {
+        int[] clients = {1, 2, 4, 8, 16, 32, 64, 128};
+        long warmupSeconds = 3;
+        long durationSeconds = 10;
+        int[] mix = {90, 5, 5};
+        List<EmbeddedServer.ThreadModel> threadModels = List.of(EmbeddedServer.ThreadModel.values());
+        int maxThreads = 200;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--clients" -> clients = parseInts(args[++i], ",");
+                case "--warmup" -> warmupSeconds = Long.parseLong(args[++i]);
+                case "--duration" -> durationSeconds = Long.parseLong(args[++i]);
+                case "--mix" -> mix = parseInts(args[++i], ":");
+                case "--threads" -> threadModels = Arrays.stream(args[++i].split(","))
+                        .map(model -> EmbeddedServer.ThreadModel.valueOf(model.trim().toUpperCase())).toList();
+                case "--max-threads" -> maxThreads = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (mix.length != 3) throw new IllegalArgumentException("--mix takes <valid>:<expired>:<forged>");
+
+        String secret = randomSecret();
+        JsonWebTokenService service = new JsonWebTokenServiceImpl(SERVICE_NAME, secret, 3_600_000L, 3_600_000L);
+        List<LoadGenerator.Request> requests = requests(secret, mix[0], mix[1], mix[2]);
+        PrintStream out = System.out;
+        out.printf("mix valid:expired:forged %d:%d:%d, warm-up %ds, measurement %ds, %d cores%n", mix[0], mix[1], mix[2],
+                warmupSeconds, durationSeconds, Runtime.getRuntime().availableProcessors());
+        out.printf("%-9s %8s %12s %10s %10s %10s %8s%n", "threads", "clients", "requests/s", "p50 ms", "p99 ms", "p999 ms", "errors");
+        for (EmbeddedServer.ThreadModel threadModel : threadModels) {
+            try (EmbeddedServer server = new EmbeddedServer(service, threadModel, maxThreads)) {
+                LoadGenerator generator = new LoadGenerator(new InetSocketAddress("127.0.0.1", server.getPort()), requests);
+                for (int clientCount : clients) {
+                    LoadResult result = generator.run(clientCount,
+                            Duration.ofSeconds(warmupSeconds), Duration.ofSeconds(durationSeconds));
+                    out.printf("%-9s %8d %12.0f %10.3f %10.3f %10.3f %8d%n", threadModel.name().toLowerCase(),
+                            result.clients(), result.throughput(), result.p50() / 1e6, result.p99() / 1e6,
+                            result.p999() / 1e6, result.errors());
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the shuffled requests of a token mix. Valid tokens must be answered with `200 OK`, expired tokens and
+     * tokens signed with another key with `401 Unauthorized`.
+     *
+     * @param secret  the secret key of the server.
+     * @param valid   the weight of valid tokens.
+     * @param expired the weight of expired tokens.
+     * @param forged  the weight of forged tokens.
+     * @return the requests.
+     */
+    static List<LoadGenerator.Request> requests(String secret, int valid, int expired, int forged) {
+        int total = valid + expired + forged;
+        if (total <= 0) throw new IllegalArgumentException("The token mix must not be empty");
+        JsonWebTokenService validTokens = new JsonWebTokenServiceImpl(SERVICE_NAME, secret, 3_600_000L, 3_600_000L);
+        JsonWebTokenService expiredTokens = new JsonWebTokenServiceImpl(SERVICE_NAME, secret, -60_000L, 3_600_000L);
+        JsonWebTokenService forgedTokens = new JsonWebTokenServiceImpl(SERVICE_NAME, randomSecret(), 3_600_000L, 3_600_000L);
+
+        List<LoadGenerator.Request> requests = new ArrayList<>();
+        addRequests(requests, "valid", validTokens, DISTINCT_REQUESTS * valid / total, HttpServletResponse.SC_OK);
+        addRequests(requests, "expired", expiredTokens, DISTINCT_REQUESTS * expired / total, HttpServletResponse.SC_UNAUTHORIZED);
+        addRequests(requests, "forged", forgedTokens, DISTINCT_REQUESTS * forged / total, HttpServletResponse.SC_UNAUTHORIZED);
+        Collections.shuffle(requests, new Random(42));
+        return requests;
+    }
+
+    private static void addRequests(List<LoadGenerator.Request> requests, String label, JsonWebTokenService tokens,
+                                    int count, int expectedStatus) {
+        for (int i = 0; i < count; i++) {
+            String token = tokens.generateAccessToken(
+                    tokens.create("user-" + i, "ROLE_USER", UUID.randomUUID(), TokenType.ACCESS_TOKEN));
+            requests.add(LoadGenerator.Request.bearer(label, EmbeddedServer.PATH, token, expectedStatus));
+        }
+    }
+
+    private static String randomSecret() {
+        return Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes());
+    }
+
+    private static int[] parseInts(String value, String separator) {
+        return Arrays.stream(value.split(separator)).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.marianciuc.jwtsecurity.loadtest;
+
+import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadTestHarnessTest {
+
+    @Test
+    void platformThreadsAnswerEveryTokenWithTheExpectedStatus() throws Exception {
+        runShortLoad(EmbeddedServer.ThreadModel.PLATFORM);
+    }
+
+    @Test
+    void virtualThreadsAnswerEveryTokenWithTheExpectedStatus() throws Exception {
+        runShortLoad(EmbeddedServer.ThreadModel.VIRTUAL);
+    }
+
+    private static void runShortLoad(EmbeddedServer.ThreadModel threadModel) throws Exception {
+        String secret = Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes());
+        List<LoadGenerator.Request> requests = LoadTestHarness.requests(secret, 1, 1, 1);
+        try (EmbeddedServer server = new EmbeddedServer(
+                new JsonWebTokenServiceImpl("load-test", secret, 3_600_000L, 3_600_000L), threadModel, 8)) {
+            LoadResult result = new LoadGenerator(new InetSocketAddress("127.0.0.1", server.getPort()), requests)
+                    .run(2, Duration.ofMillis(200), Duration.ofMillis(500));
+
+            assertTrue(result.requests() > 0);
+            assertEquals(0, result.errors());
+            assertTrue(result.p50() <= result.p99() && result.p99() <= result.p999());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.marianciuc.jwtsecurity.oauth2;
+
+import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
+import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonWebTokenDecoderTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes());
+
+    private final JsonWebTokenServiceImpl service = new JsonWebTokenServiceImpl("service", SECRET, 60_000L, 60_000L);
+    private final JsonWebTokenDecoder decoder = new JsonWebTokenDecoder(service);
+
+    @Test
+    void decodesAccessTokens() {
+        UUID id = UUID.randomUUID();
+        String token = service.generateAccessToken(service.create("alice", "ROLE_USER", id, TokenType.ACCESS_TOKEN));
+
+        Jwt jwt = decoder.decode(token);
+
+        assertEquals("alice", jwt.getSubject());
+        assertEquals("ROLE_USER", jwt.getClaimAsString("ROLE"));
+        assertEquals(id.toString(), jwt.getClaimAsString("ID"));
+        assertEquals("HS256", jwt.getHeaders().get("alg"));
+        assertNotNull(jwt.getExpiresAt());
+    }
+
+    @Test
+    void rejectsExpiredForgedAndRefreshTokens() {
+        JwtUserDetails user = service.create("alice", "ROLE_USER", UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+        String expired = new JsonWebTokenServiceImpl("service", SECRET, -1_000L, 60_000L).generateAccessToken(user);
+        String forged = new JsonWebTokenServiceImpl("service",
+                Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes()), 60_000L, 60_000L)
+                .generateAccessToken(user);
+        String refresh = service.generateRefreshToken(service.create("alice", "ROLE_USER", UUID.randomUUID(), TokenType.REFRESH_TOKEN));
+
+        assertThrows(BadJwtException.class, () -> decoder.decode(expired));
+        assertThrows(BadJwtException.class, () -> decoder.decode(forged));
+        assertThrows(BadJwtException.class, () -> decoder.decode(refresh));
+        assertThrows(BadJwtException.class, () -> decoder.decode("not-a-token"));
+    }
+
+    @Test
+    void authenticatesThroughTheResourceServerProvider() {
+        UUID id = UUID.randomUUID();
+        String token = service.generateAccessToken(
+                service.create("alice", "ROLE_USER", id, TokenType.ACCESS_TOKEN), Map.of("tenant", "acme"));
+        JwtAuthenticationProvider provider = new JwtAuthenticationProvider(decoder);
+        provider.setJwtAuthenticationConverter(new JsonWebTokenAuthenticationConverter());
+
+        Authentication authentication = provider.authenticate(new BearerTokenAuthenticationToken(token));
+
+        JwtUserDetails principal = assertInstanceOf(JwtUserDetails.class, authentication.getPrincipal());
+        assertEquals("alice", principal.getUsername());
+        assertEquals(id, principal.getId());
+        assertEquals(TokenType.ACCESS_TOKEN, principal.getType());
+        assertEquals("acme", principal.getClaim("tenant", String.class));
+        assertEquals(service.parseAccessToken(token).getClaims(), principal.getClaims());
+        assertEquals("ROLE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+        assertThrows(InvalidBearerTokenException.class,
+                () -> provider.authenticate(new BearerTokenAuthenticationToken(token + "x")));
+    }
+
+    @Test
+    void rejectsTokensWithoutTheLibraryClaims() {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "HS256").subject("alice").claim("ROLE", "ROLE_USER").build();
+
+        assertThrows(InvalidBearerTokenException.class, () -> new JsonWebTokenAuthenticationConverter().convert(jwt));
+    }
+
+    @Test
+    void rejectsTokensWithoutASubject() {
+        JsonWebTokenAuthenticationConverter converter = new JsonWebTokenAuthenticationConverter();
+        Jwt.Builder builder = Jwt.withTokenValue("token").header("alg", "HS256").claim("ROLE", "ROLE_USER")
+                .claim("ID", UUID.randomUUID().toString()).claim("TOKEN_TYPE", "ACCESS_TOKEN");
+
+        assertThrows(InvalidBearerTokenException.class, () -> converter.convert(builder.build()));
+        assertThrows(InvalidBearerTokenException.class, () -> converter.convert(builder.subject(" ").build()));
+    }
+}
@@ -0,0 +1,182 @@
+package io.github.marianciuc.jwtsecurity.service;
+
+import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.filters.JsonWebTokenFilter;
+import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+import io.github.marianciuc.jwtsecurity.service.impl.UserServiceImpl;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import jakarta.servlet.http.HttpSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Base64;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Allocation regression tests for the token hot paths. Every path is warmed up first and then measured with
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}; the average number of bytes allocated per
+ * operation must stay below the budget recorded in {@code allocation-budgets.properties}. Raising a budget is a
+ * reviewed change to that file.
+ */
+public class AllocationBudgetTest {
+
+    private static final String BUDGETS_FILE = "/allocation-budgets.properties";
+    private static final int WARM_UP_ITERATIONS = 5_000;
+    private static final int MEASURED_ITERATIONS = 2_000;
+    private static final String SUBJECT = "SUBJECT";
+    private static final String ROLE = "ROLE_USER";
+    private static final Long EXPIRATION = 3600000L;
+
+    private com.sun.management.ThreadMXBean threadMXBean;
+    private Properties budgets;
+    private JsonWebTokenServiceImpl service;
+    private UserServiceImpl userService;
+    private JwtUserDetails userDetails;
+    private String accessToken;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        budgets = new Properties();
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream(BUDGETS_FILE)) {
+            Assertions.assertNotNull(in, "Missing " + BUDGETS_FILE);
+            budgets.load(in);
+        }
+
+        String secret = Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes());
+        service = new JsonWebTokenServiceImpl("SERVICE_NAME", secret, EXPIRATION, EXPIRATION);
+        userService = new UserServiceImpl();
+        userDetails = service.create(SUBJECT, ROLE, UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+        accessToken = service.generateAccessToken(userDetails);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testParseAccessTokenAllocationBudget() {
+        assertWithinBudget("parseAccessToken", () -> service.parseAccessToken(accessToken));
+    }
+
+    @Test
+    public void testGenerateAccessTokenAllocationBudget() {
+        assertWithinBudget("generateAccessToken", () -> service.generateAccessToken(userDetails));
+    }
+
+    @Test
+    public void testDoFilterInternalAllocationBudget() {
+        JsonWebTokenFilter filter = new JsonWebTokenFilter(service, userService);
+        HttpServletRequest request = new StubRequest("Bearer " + accessToken);
+        HttpServletResponse response = new StubResponse();
+        FilterChain chain = (req, res) -> { };
+
+        assertWithinBudget("doFilterInternal", () -> filter.doFilterInternal(request, response, chain));
+    }
+
+    @Test
+    public void testSetUserAuthenticationAllocationBudget() {
+        HttpServletRequest request = new StubRequest(null);
+
+        assertWithinBudget("setUserAuthentication", () -> userService.setUserAuthentication(userDetails, request));
+    }
+
+    private void assertWithinBudget(String path, Operation operation) {
+        String budget = budgets.getProperty(path);
+        Assertions.assertNotNull(budget, "No allocation budget recorded for " + path);
+
+        try {
+            for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+                operation.run();
+            }
+            long threadId = Thread.currentThread().threadId();
+            long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                operation.run();
+            }
+            long perOperation = (threadMXBean.getThreadAllocatedBytes(threadId) - before) / MEASURED_ITERATIONS;
+
+            Assertions.assertTrue(perOperation <= Long.parseLong(budget.trim()),
+                    path + " allocated " + perOperation + " bytes/op, budget is " + budget.trim() + " bytes/op");
+        } catch (Exception e) {
+            Assertions.fail(path + " failed while measuring allocations", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+    /**
+     * Minimal request that answers the calls made on the measured paths without going through Mockito, whose
+     * invocation bookkeeping would otherwise dominate the measurement.
+     */
+    private static class StubRequest extends HttpServletRequestWrapper {
+        private final String authorization;
+
+        StubRequest(String authorization) {
+            super(mock(HttpServletRequest.class, withSettings().stubOnly()));
+            this.authorization = authorization;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HttpHeaders.AUTHORIZATION.equals(name) ? authorization : null;
+        }
+
+        @Override
+        public String getRemoteAddr() {
+            return "127.0.0.1";
+        }
+
+        @Override
+        public HttpSession getSession(boolean create) {
+            return null;
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return null;
+        }
+
+        @Override
+        public void setAttribute(String name, Object o) {
+        }
+    }
+
+    private static class StubResponse extends HttpServletResponseWrapper {
+        StubResponse() {
+            super(mock(HttpServletResponse.class, withSettings().stubOnly()));
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+        }
+    }
+}
@@ -2,15 +2,20 @@ package io.github.marianciuc.jwtsecurity.service;
 
 import io.github.marianciuc.jwtsecurity.entity.JwtUser;
 import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.exceptions.JwtSecurityException;
+import io.github.marianciuc.jwtsecurity.filters.AccessTokenRenewer;
 import io.github.marianciuc.jwtsecurity.filters.JsonWebTokenFilter;
+import io.github.marianciuc.jwtsecurity.filters.VerificationFailureLimiter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -18,6 +23,7 @@ import org.springframework.http.HttpHeaders;
 
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.UUID;
 
 import static org.mockito.Mockito.*;
@@ -75,4 +81,70 @@ public class JsonWebTokenFilterTest {
         verify(jsonWebTokenService, never()).parseAccessToken(ArgumentMatchers.any(String.class));
         verify(chain).doFilter(request, response);
     }
+
+    @Test
+    public void testDoFilterInternalRejectsClientAfterRepeatedFailures() throws ServletException, IOException {
+        jsonWebTokenFilter.setFailureLimiter(new VerificationFailureLimiter(64, 1, Duration.ofMinutes(1), null));
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer forged");
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        when(jsonWebTokenService.parseAccessToken("forged")).thenThrow(new JwtSecurityException("forged"));
+
+        Assertions.assertThrows(JwtSecurityException.class, () ->
+                jsonWebTokenFilter.doFilterInternal(request, response, chain)
+        );
+        jsonWebTokenFilter.doFilterInternal(request, response, chain);
+
+        verify(jsonWebTokenService, times(1)).parseAccessToken("forged");
+        verify(response).sendError(eq(429), ArgumentMatchers.anyString());
+        verify(chain, never()).doFilter(request, response);
+    }
+
+    @Test
+    public void testDoFilterInternalReturnsRenewedToken() throws ServletException, IOException {
+        AccessTokenRenewer tokenRenewer = Mockito.mock(AccessTokenRenewer.class);
+        jsonWebTokenFilter.setTokenRenewer(tokenRenewer);
+        JwtUser userDetails = new JwtUser("user", "pass", UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
+        when(jsonWebTokenService.parseAccessToken("token")).thenReturn(userDetails);
+        when(tokenRenewer.renewIfExpiring("token", userDetails)).thenReturn("renewed");
+        when(tokenRenewer.getResponseHeader()).thenReturn(AccessTokenRenewer.DEFAULT_RESPONSE_HEADER);
+
+        jsonWebTokenFilter.doFilterInternal(request, response, chain);
+
+        verify(response).setHeader(AccessTokenRenewer.DEFAULT_RESPONSE_HEADER, "renewed");
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    public void testDoFilterInternalRecordsTimings() throws ServletException, IOException {
+        jsonWebTokenFilter.setTimingEnabled(true);
+        JwtUser userDetails = new JwtUser("user", "pass", UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
+        when(jsonWebTokenService.parseAccessToken("token")).thenReturn(userDetails);
+
+        jsonWebTokenFilter.doFilterInternal(request, response, chain);
+
+        verify(response).addHeader(eq("Server-Timing"), ArgumentMatchers.contains("jwt-extract;dur="));
+        verify(request).setAttribute(eq(JwtTimings.REQUEST_ATTRIBUTE), ArgumentMatchers.any(JwtTimings.class));
+        Assertions.assertNull(JwtTimings.current());
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    public void testDoFilterInternalRecordsTimingsOfThrottledRequests() throws ServletException, IOException {
+        jsonWebTokenFilter.setTimingEnabled(true);
+        jsonWebTokenFilter.setFailureLimiter(new VerificationFailureLimiter(64, 1, Duration.ofMinutes(1), null));
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer forged");
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        when(jsonWebTokenService.parseAccessToken("forged")).thenThrow(new JwtSecurityException("forged"));
+        Assertions.assertThrows(JwtSecurityException.class, () ->
+                jsonWebTokenFilter.doFilterInternal(request, response, chain)
+        );
+
+        jsonWebTokenFilter.doFilterInternal(request, response, chain);
+
+        InOrder inOrder = inOrder(response);
+        inOrder.verify(response, times(2)).addHeader(eq("Server-Timing"), ArgumentMatchers.anyString());
+        inOrder.verify(response).sendError(eq(429), ArgumentMatchers.anyString());
+    }
 }
@@ -3,13 +3,23 @@ package io.github.marianciuc.jwtsecurity.service;
 import io.github.marianciuc.jwtsecurity.enums.TokenType;
 import io.github.marianciuc.jwtsecurity.exceptions.JwtSecurityException;
 import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+import io.jsonwebtoken.CompressionException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class JsonWebTokenServiceTest {
@@ -103,6 +113,100 @@ public class JsonWebTokenServiceTest {
         );
     }
 
+    @Test
+    public void testParseAccessTokenWithCustomClaims() {
+        JwtUserDetails userDetails = service.create(SUBJECT, ROLE, UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+        String token = service.generateAccessToken(userDetails, Map.of("tenant", "acme", "flags", List.of("beta")));
+        JwtUserDetails parsedDetails = service.parseAccessToken(token);
+        Assertions.assertEquals("acme", parsedDetails.getClaim("tenant", String.class));
+        Assertions.assertEquals(List.of("beta"), parsedDetails.getClaim("flags", List.class));
+        Assertions.assertNull(parsedDetails.getClaim("plan", String.class));
+    }
+
+    @Test
+    public void testParsedUserIsSerializable() throws Exception {
+        JwtUserDetails userDetails = service.create(SUBJECT, ROLE, UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+        JwtUserDetails parsedDetails = service.parseAccessToken(
+                service.generateAccessToken(userDetails, Map.of("tenant", "acme")));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(parsedDetails);
+        }
+        JwtUserDetails restored;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (JwtUserDetails) in.readObject();
+        }
+
+        Assertions.assertEquals(parsedDetails.getClaims(), restored.getClaims());
+        Assertions.assertEquals("acme", restored.getClaim("tenant", String.class));
+        Assertions.assertEquals(parsedDetails.getClaim("exp", Date.class), restored.getClaim("exp", Date.class));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> restored.getClaims().put("tenant", "other"));
+    }
+
+    @Test
+    public void testGenerateAccessTokenWithReservedClaim() {
+        JwtUserDetails userDetails = service.create(SUBJECT, ROLE, UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                service.generateAccessToken(userDetails, Map.of("ROLE", ROLE_SERVICE))
+        );
+    }
+
+    @Test
+    public void testGeneratedTokensCarryTimeOrderedIds() {
+        JwtUserDetails userDetails = service.create(SUBJECT, ROLE, UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+        UUID first = UUID.fromString(service.parseAccessToken(service.generateAccessToken(userDetails)).getClaim("jti", String.class));
+        UUID second = UUID.fromString(service.parseAccessToken(service.generateAccessToken(userDetails)).getClaim("jti", String.class));
+        Assertions.assertEquals(7, first.version());
+        Assertions.assertTrue(first.compareTo(second) < 0);
+        Assertions.assertEquals(7, service.parseAccessToken(service.generateServiceToken()).getId().version());
+    }
+
+    @Test
+    public void testCompressesTokensAboveTheThreshold() {
+        service.setCompressionThreshold(1024);
+        JwtUserDetails userDetails = service.create(SUBJECT, ROLE, UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+        List<String> permissions = new ArrayList<>();
+        for (int i = 0; i < 200; i++) permissions.add("orders:read:tenant-" + i);
+
+        String small = service.generateAccessToken(userDetails);
+        String large = service.generateAccessToken(userDetails, Map.of("permissions", permissions));
+
+        Assertions.assertFalse(header(small).contains("\"zip\""));
+        Assertions.assertTrue(header(large).contains("\"zip\":\"DEF\""));
+        Assertions.assertTrue(large.length() < 2048);
+        Assertions.assertEquals(permissions, service.parseAccessToken(large).getClaim("permissions", List.class));
+    }
+
+    @Test
+    public void testRejectsTokensInflatingBeyondTheLimit() {
+        service.setCompressionThreshold(0);
+        service.setMaxDecompressedBytes(64 * 1024);
+        JwtUserDetails userDetails = service.create(SUBJECT, ROLE, UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+        String bomb = service.generateAccessToken(userDetails, Map.of("padding", "a".repeat(1024 * 1024)));
+
+        Assertions.assertTrue(bomb.length() < 4096);
+        Assertions.assertThrows(CompressionException.class, () -> service.parseAccessToken(bomb));
+    }
+
+    @Test
+    public void testParseAccessTokenRecordsTimings() {
+        String token = service.generateAccessToken(service.create(SUBJECT, ROLE, UUID.randomUUID(), TokenType.ACCESS_TOKEN));
+        JwtTimings timings = JwtTimings.start();
+        try {
+            service.parseAccessToken(token);
+        } finally {
+            timings.finish();
+        }
+        Assertions.assertTrue(timings.getNanos(JwtTimings.Phase.VERIFY) > 0);
+        Assertions.assertTrue(timings.getNanos(JwtTimings.Phase.CLAIMS) > 0);
+        Assertions.assertNull(JwtTimings.current());
+    }
+
+    private static String header(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+    }
+
     @AfterEach
     public void tearDown() {
         service = null;
@@ -0,0 +1,159 @@
+package io.github.marianciuc.jwtsecurity.service.impl;
+
+import io.github.marianciuc.jwtsecurity.entity.TenantSettings;
+import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.exceptions.JwtSecurityException;
+import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
+import io.github.marianciuc.jwtsecurity.service.TenantRegistry;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiTenantJsonWebTokenServiceTest {
+
+    private static final Long EXPIRATION = 3600000L;
+
+    private final Map<String, TenantSettings> settings = new HashMap<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private TenantRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        settings.put("tenant-a", new TenantSettings("service-a", randomKey(), EXPIRATION, EXPIRATION));
+        settings.put("tenant-b", new TenantSettings("service-b", randomKey(), EXPIRATION, EXPIRATION));
+        registry = tenantId -> {
+            lookups.incrementAndGet();
+            return settings.get(tenantId);
+        };
+    }
+
+    @Test
+    void shouldRouteTokensToTheirTenant() {
+        MultiTenantJsonWebTokenService service = new MultiTenantJsonWebTokenService(registry, 10, Duration.ofMinutes(5));
+        JwtUserDetails user = service.create("user", "ROLE_USER", UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+
+        String tokenA = service.forTenant("tenant-a").generateAccessToken(user);
+        String tokenB = service.forTenant("tenant-b").generateAccessToken(user);
+
+        assertEquals("tenant-a", service.resolveTenant(tokenA));
+        assertEquals("tenant-b", service.resolveTenant(tokenB));
+        JwtUserDetails parsed = service.parseAccessToken(tokenA);
+        assertEquals("user", parsed.getUsername());
+        assertEquals("tenant-a", parsed.getClaim("iss", String.class));
+        assertNotNull(service.parseAccessToken(tokenB));
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void shouldRenewTokensInTheTenantTheyWereParsedFrom() {
+        MultiTenantJsonWebTokenService service = new MultiTenantJsonWebTokenService(registry, 10, Duration.ofMinutes(5));
+        JwtUserDetails user = service.create("user", "ROLE_USER", UUID.randomUUID(), TokenType.REFRESH_TOKEN);
+
+        JwtUserDetails parsed = service.parseRefreshToken(service.forTenant("tenant-b").generateRefreshToken(user));
+
+        assertEquals("tenant-b", service.resolveTenant(service.generateAccessToken(parsed)));
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithAnotherTenantKey() {
+        MultiTenantJsonWebTokenService service = new MultiTenantJsonWebTokenService(registry, 10, Duration.ofMinutes(5));
+        JsonWebTokenServiceImpl impostor = new JsonWebTokenServiceImpl("service-a",
+                settings.get("tenant-a").getSecretKey(), EXPIRATION, EXPIRATION, "tenant-b");
+        String token = impostor.generateAccessToken(
+                impostor.create("user", "ROLE_USER", UUID.randomUUID(), TokenType.ACCESS_TOKEN));
+
+        assertThrows(RuntimeException.class, () -> service.parseAccessToken(token));
+    }
+
+    @Test
+    void shouldRejectUnknownTenant() {
+        MultiTenantJsonWebTokenService service = new MultiTenantJsonWebTokenService(registry, 10, Duration.ofMinutes(5));
+
+        assertThrows(JwtSecurityException.class, () -> service.forTenant("tenant-c"));
+        assertTrue(service.getCachedTenants().isEmpty());
+    }
+
+    @Test
+    void shouldRememberUnknownTenants() {
+        MultiTenantJsonWebTokenService service = new MultiTenantJsonWebTokenService(registry, 10, Duration.ofMinutes(5));
+
+        assertThrows(JwtSecurityException.class, () -> service.forTenant("tenant-c"));
+        assertThrows(JwtSecurityException.class, () -> service.forTenant("tenant-c"));
+
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void shouldEvictTheLeastRecentlyUsedTenant() {
+        settings.put("tenant-c", new TenantSettings("service-c", randomKey(), EXPIRATION, EXPIRATION));
+        MultiTenantJsonWebTokenService service = new MultiTenantJsonWebTokenService(registry, 2, Duration.ofMinutes(5));
+
+        service.forTenant("tenant-a");
+        service.forTenant("tenant-b");
+        service.forTenant("tenant-c");
+
+        assertEquals(Set.of("tenant-b", "tenant-c"), service.getCachedTenants());
+    }
+
+    @Test
+    void shouldIssueServiceTokensInTheDefaultTenant() {
+        MultiTenantJsonWebTokenService service = new MultiTenantJsonWebTokenService(registry, 10, Duration.ofMinutes(5));
+        assertThrows(JwtSecurityException.class, service::generateServiceToken);
+
+        service.setDefaultTenant("tenant-b");
+
+        assertEquals("tenant-b", service.resolveTenant(service.generateServiceToken()));
+    }
+
+    @Test
+    void shouldBoundTheTenantCache() {
+        MultiTenantJsonWebTokenService service = new MultiTenantJsonWebTokenService(registry, 1, Duration.ofMinutes(5));
+
+        service.forTenant("tenant-a");
+        service.forTenant("tenant-b");
+
+        assertEquals(1, service.getCachedTenants().size());
+        assertTrue(service.getCachedTenants().contains("tenant-b"));
+    }
+
+    private static String randomKey() {
+        return Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes());
+    }
+
+    @Test
+    void shouldEvictIdleTenantsWhileOtherTenantsAreUsed() throws InterruptedException {
+        MultiTenantJsonWebTokenService service = new MultiTenantJsonWebTokenService(registry, 10, Duration.ofMillis(100));
+        service.forTenant("tenant-a");
+        service.forTenant("tenant-b");
+
+        Thread.sleep(1100);
+        service.forTenant("tenant-a");
+
+        assertEquals(Set.of("tenant-a"), service.getCachedTenants());
+    }
+
+    @Test
+    void shouldRequireTheKeyIdOfCompressedTokens() {
+        MultiTenantJsonWebTokenService service = new MultiTenantJsonWebTokenService(registry, 10, Duration.ofMinutes(5));
+        String token = Jwts.builder()
+                .issuer("tenant-a")
+                .subject("user")
+                .compressWith(Jwts.ZIP.DEF)
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(settings.get("tenant-a").getSecretKey())))
+                .compact();
+
+        assertThrows(JwtSecurityException.class, () -> service.resolveTenant(token));
+    }
+}
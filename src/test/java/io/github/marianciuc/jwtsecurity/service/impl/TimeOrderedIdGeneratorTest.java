@@ -0,0 +1,70 @@
+package io.github.marianciuc.jwtsecurity.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    private final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+
+    @Test
+    void generatesVersion7UuidsWithTheCurrentTime() {
+        long before = System.currentTimeMillis();
+        UUID id = generator.generate();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long timestamp = id.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= after + 1);
+    }
+
+    @Test
+    void idsOfOneThreadAreStrictlyIncreasing() {
+        UUID previous = generator.generate();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = generator.generate();
+            assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0,
+                    previous + " then " + next);
+            previous = next;
+        }
+    }
+
+    @Test
+    void idsOfOneVirtualThreadAreStrictlyIncreasing() throws Exception {
+        try (ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor()) {
+            virtual.submit(this::idsOfOneThreadAreStrictlyIncreasing).get();
+        }
+    }
+
+    @Test
+    void idsAreUniqueAcrossPlatformAndVirtualThreads() throws Exception {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        int perTask = 10_000;
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService platform = Executors.newFixedThreadPool(4);
+             ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int task = 0; task < 8; task++) {
+                ExecutorService executor = task % 2 == 0 ? platform : virtual;
+                futures.add(executor.submit(() -> {
+                    Set<UUID> local = new HashSet<>();
+                    for (int i = 0; i < perTask; i++) local.add(generator.generate());
+                    ids.addAll(local);
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        }
+        assertEquals(8 * perTask, ids.size());
+    }
+}
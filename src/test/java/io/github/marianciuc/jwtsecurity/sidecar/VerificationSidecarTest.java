@@ -0,0 +1,180 @@
+package io.github.marianciuc.jwtsecurity.sidecar;
+
+import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
+import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VerificationSidecarTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes());
+
+    @TempDir
+    Path directory;
+
+    private final JsonWebTokenServiceImpl service = new JsonWebTokenServiceImpl("service", SECRET, 60_000L, 60_000L);
+    private Path socket;
+    private VerificationSidecar sidecar;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        socket = directory.resolve("jwt.sock");
+        sidecar = new VerificationSidecar(service, socket, 2, 4096);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sidecar.close();
+        assertFalse(Files.exists(socket));
+    }
+
+    @Test
+    void answersPipelinedAndBatchedRequestsInOrder() throws IOException {
+        UUID id = UUID.randomUUID();
+        JwtUserDetails user = service.create("alice", "ROLE_USER", id, TokenType.ACCESS_TOKEN);
+        String valid = service.generateAccessToken(user);
+        String expired = new JsonWebTokenServiceImpl("service", SECRET, -1_000L, 60_000L).generateAccessToken(user);
+        String forged = new JsonWebTokenServiceImpl("service",
+                Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes()), 60_000L, 60_000L)
+                .generateAccessToken(user);
+        String refresh = service.generateRefreshToken(service.create("bob", "ROLE_ADMIN", id, TokenType.REFRESH_TOKEN));
+
+        ByteBuffer requests = ByteBuffer.allocate(8192);
+        putVerify(requests, 1, valid);
+        putVerify(requests, 2, forged);
+        putBatch(requests, 3, valid, expired, "not-a-token", refresh);
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            requests.flip();
+            while (requests.hasRemaining()) channel.write(requests);
+
+            ByteBuffer first = readFrame(channel);
+            assertEquals(1, first.getInt());
+            assertEquals(VerificationSidecar.VERIFY, first.get());
+            assertValid(first, "alice", "ROLE_USER", id, TokenType.ACCESS_TOKEN);
+
+            ByteBuffer second = readFrame(channel);
+            assertEquals(2, second.getInt());
+            assertEquals(VerificationSidecar.VERIFY, second.get());
+            assertEquals(VerificationSidecar.STATUS_INVALID_SIGNATURE, second.get());
+
+            ByteBuffer third = readFrame(channel);
+            assertEquals(3, third.getInt());
+            assertEquals(VerificationSidecar.VERIFY_BATCH, third.get());
+            assertEquals(4, third.getShort());
+            assertValid(third, "alice", "ROLE_USER", id, TokenType.ACCESS_TOKEN);
+            assertEquals(VerificationSidecar.STATUS_EXPIRED, third.get());
+            assertEquals(VerificationSidecar.STATUS_MALFORMED, third.get());
+            assertValid(third, "bob", "ROLE_ADMIN", id, TokenType.REFRESH_TOKEN);
+            assertFalse(third.hasRemaining());
+        }
+    }
+
+    @Test
+    void answersCompressedTokensWhoseClaimsAreLongerThanTheToken() throws IOException {
+        JsonWebTokenServiceImpl compressing = new JsonWebTokenServiceImpl("service", SECRET, 60_000L, 60_000L);
+        compressing.setCompressionThreshold(0);
+        UUID id = UUID.randomUUID();
+        String subject = "a".repeat(3000);
+        String role = "ROLE_" + "B".repeat(3000);
+        String token = compressing.generateAccessToken(compressing.create(subject, role, id, TokenType.ACCESS_TOKEN));
+        assertTrue(token.length() < subject.length() + role.length());
+
+        String[] batch = new String[10];
+        Arrays.fill(batch, token);
+        ByteBuffer requests = ByteBuffer.allocate(8192);
+        putVerify(requests, 1, token);
+        putBatch(requests, 2, batch);
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            requests.flip();
+            while (requests.hasRemaining()) channel.write(requests);
+
+            ByteBuffer single = readFrame(channel);
+            assertEquals(1, single.getInt());
+            assertEquals(VerificationSidecar.VERIFY, single.get());
+            assertValid(single, subject, role, id, TokenType.ACCESS_TOKEN);
+
+            ByteBuffer batched = readFrame(channel);
+            assertEquals(2, batched.getInt());
+            assertEquals(VerificationSidecar.VERIFY_BATCH, batched.get());
+            assertEquals(batch.length, batched.getShort());
+            for (int i = 0; i < batch.length; i++) assertValid(batched, subject, role, id, TokenType.ACCESS_TOKEN);
+            assertFalse(batched.hasRemaining());
+        }
+    }
+
+    @Test
+    void restrictsTheSocketToItsOwner() throws IOException {
+        assumeTrue(socket.getFileSystem().supportedFileAttributeViews().contains("posix"));
+
+        assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(socket));
+    }
+
+    @Test
+    void closesConnectionsSendingOversizedFrames() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 4097));
+            assertEquals(-1, channel.read(ByteBuffer.allocate(16)));
+        }
+    }
+
+    private static void putVerify(ByteBuffer buffer, int requestId, String token) {
+        byte[] bytes = token.getBytes(StandardCharsets.US_ASCII);
+        buffer.putInt(Integer.BYTES + 1 + bytes.length).putInt(requestId).put(VerificationSidecar.VERIFY).put(bytes);
+    }
+
+    private static void putBatch(ByteBuffer buffer, int requestId, String... tokens) {
+        int start = buffer.position();
+        buffer.putInt(0).putInt(requestId).put(VerificationSidecar.VERIFY_BATCH).putShort((short) tokens.length);
+        for (String token : tokens) {
+            byte[] bytes = token.getBytes(StandardCharsets.US_ASCII);
+            buffer.putInt(bytes.length).put(bytes);
+        }
+        buffer.putInt(start, buffer.position() - start - Integer.BYTES);
+    }
+
+    private static ByteBuffer readFrame(SocketChannel channel) throws IOException {
+        ByteBuffer length = readFully(channel, Integer.BYTES);
+        return readFully(channel, length.getInt());
+    }
+
+    private static ByteBuffer readFully(SocketChannel channel, int bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) throw new IOException("Connection closed");
+        }
+        return buffer.flip();
+    }
+
+    private static void assertValid(ByteBuffer result, String subject, String role, UUID id, TokenType type) {
+        assertEquals(VerificationSidecar.STATUS_VALID, result.get());
+        assertEquals(subject, readString(result));
+        assertEquals(role, readString(result));
+        assertEquals(id, new UUID(result.getLong(), result.getLong()));
+        assertEquals(type == TokenType.REFRESH_TOKEN ? VerificationSidecar.TYPE_REFRESH_TOKEN
+                : VerificationSidecar.TYPE_ACCESS_TOKEN, result.get());
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
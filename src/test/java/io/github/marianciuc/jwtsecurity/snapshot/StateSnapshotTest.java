@@ -0,0 +1,87 @@
+package io.github.marianciuc.jwtsecurity.snapshot;
+
+import io.github.marianciuc.jwtsecurity.entity.TenantSettings;
+import io.github.marianciuc.jwtsecurity.filters.VerificationFailureLimiter;
+import io.github.marianciuc.jwtsecurity.service.TenantRegistry;
+import io.github.marianciuc.jwtsecurity.service.impl.MultiTenantJsonWebTokenService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private final TenantRegistry registry = tenantId -> tenantId.startsWith("tenant-")
+            ? new TenantSettings(tenantId, Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes()), 60000L, 60000L)
+            : null;
+
+    @Test
+    public void testRestore_afterSave_restoresLimiterAndTenants() throws IOException {
+        Path file = directory.resolve("state.snapshot");
+        VerificationFailureLimiter limiter = newLimiter();
+        limiter.recordFailure("10.0.0.1");
+        MultiTenantJsonWebTokenService tenants = new MultiTenantJsonWebTokenService(registry, 10, Duration.ofMinutes(5));
+        tenants.forTenant("tenant-a");
+        new StateSnapshot(file, limiter, tenants).save();
+
+        VerificationFailureLimiter restoredLimiter = newLimiter();
+        MultiTenantJsonWebTokenService restoredTenants = new MultiTenantJsonWebTokenService(registry, 10, Duration.ofMinutes(5));
+        int restored = new StateSnapshot(file, restoredLimiter, restoredTenants).restore();
+
+        assertEquals(2, restored);
+        assertTrue(restoredLimiter.isBlocked("10.0.0.1"));
+        assertTrue(restoredTenants.getCachedTenants().contains("tenant-a"));
+        assertFalse(Files.exists(directory.resolve("state.snapshot.tmp")));
+    }
+
+    @Test
+    public void testScheduleSaves_afterFailedSave_keepsSaving() throws InterruptedException {
+        StateSnapshot snapshot = new StateSnapshot(directory.resolve("missing").resolve("state.snapshot"), newLimiter(), null);
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            ScheduledFuture<?> saves = snapshot.scheduleSaves(executor, Duration.ofMillis(10));
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (snapshot.getFailedSaveCount() < 2 && System.nanoTime() < deadline) Thread.sleep(10);
+
+            assertTrue(snapshot.getFailedSaveCount() >= 2);
+            assertFalse(saves.isDone());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRestore_withoutFile_restoresNothing() throws IOException {
+        assertEquals(0, new StateSnapshot(directory.resolve("missing"), newLimiter(), null).restore());
+    }
+
+    @Test
+    public void testRestore_withCorruptFile_throwsException() throws IOException {
+        Path file = directory.resolve("state.snapshot");
+        VerificationFailureLimiter limiter = newLimiter();
+        limiter.recordFailure("10.0.0.1");
+        new StateSnapshot(file, limiter, null).save();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x7F;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> new StateSnapshot(file, newLimiter(), null).restore());
+    }
+
+    private static VerificationFailureLimiter newLimiter() {
+        return new VerificationFailureLimiter(64, 1, Duration.ofMinutes(10), null);
+    }
+}
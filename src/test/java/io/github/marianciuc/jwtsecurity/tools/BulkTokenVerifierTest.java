@@ -0,0 +1,80 @@
+package io.github.marianciuc.jwtsecurity.tools;
+
+import io.github.marianciuc.jwtsecurity.enums.TokenType;
+import io.github.marianciuc.jwtsecurity.enums.VerificationOutcome;
+import io.github.marianciuc.jwtsecurity.service.JwtUserDetails;
+import io.github.marianciuc.jwtsecurity.service.impl.JsonWebTokenServiceImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+public class BulkTokenVerifierTest {
+
+    private static final String SUBJECT = "SUBJECT";
+    private static final String ROLE = "ROLE_USER";
+
+    @TempDir
+    Path directory;
+
+    private String oldKey;
+    private String currentKey;
+
+    @BeforeEach
+    public void setUp() {
+        oldKey = randomKey();
+        currentKey = randomKey();
+    }
+
+    @Test
+    public void testVerifyClassifiesTokens() throws IOException {
+        JsonWebTokenServiceImpl current = new JsonWebTokenServiceImpl("SERVICE", currentKey, 3600000L, 3600000L);
+        JsonWebTokenServiceImpl old = new JsonWebTokenServiceImpl("SERVICE", oldKey, 3600000L, 3600000L);
+        JsonWebTokenServiceImpl expired = new JsonWebTokenServiceImpl("SERVICE", currentKey, -60000L, -60000L);
+        JsonWebTokenServiceImpl forged = new JsonWebTokenServiceImpl("SERVICE", randomKey(), 3600000L, 3600000L);
+        JwtUserDetails user = current.create(SUBJECT, ROLE, UUID.randomUUID(), TokenType.ACCESS_TOKEN);
+
+        String validToken = current.generateAccessToken(user);
+        Path log = directory.resolve("access.log");
+        Files.writeString(log, String.join("\n",
+                "GET /a Authorization: Bearer " + validToken,
+                "GET /b Authorization: Bearer " + validToken,
+                "GET /c Authorization: Bearer " + old.generateAccessToken(user),
+                "GET /d Authorization: Bearer " + expired.generateAccessToken(user),
+                "GET /e Authorization: Bearer " + forged.generateAccessToken(user),
+                "GET /f Authorization: Bearer not.a.token",
+                "GET /g no token here"));
+
+        VerificationReport report;
+        try (BulkTokenVerifier verifier = new BulkTokenVerifier(List.of(currentKey, oldKey),
+                Pattern.compile(BulkTokenVerifier.DEFAULT_PATTERN), Duration.ofHours(1), 2)) {
+            report = verifier.verify(List.of(log), new PrintStream(new ByteArrayOutputStream()));
+        }
+
+        Assertions.assertEquals(6, report.getTotal());
+        Assertions.assertEquals(3, report.getCount(VerificationOutcome.VALID));
+        Assertions.assertEquals(1, report.getCount(VerificationOutcome.EXPIRED));
+        Assertions.assertEquals(1, report.getCount(VerificationOutcome.INVALID_SIGNATURE));
+        Assertions.assertEquals(1, report.getCount(VerificationOutcome.MALFORMED));
+        Assertions.assertEquals(3L, report.getKeyCounts().get(0));
+        Assertions.assertEquals(1L, report.getKeyCounts().get(1));
+        Assertions.assertEquals(4L, report.getSubjectCounts().get(SUBJECT));
+        Assertions.assertEquals(4L, report.getRoleCounts().get(ROLE));
+        Assertions.assertEquals(4L, report.getBucketCounts().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    private static String randomKey() {
+        return Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes());
+    }
+}